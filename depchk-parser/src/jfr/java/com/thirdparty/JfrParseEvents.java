@@ -0,0 +1,169 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * <P>{@link ParseEvents} backed by Java Flight Recorder, instantiated reflectively so that JVMs without
+ * <code>jdk.jfr</code> never load this class.
+ * <BR>Event types are enabled and thresholds are set in the recording settings like for JDK events, e.g.
+ * <code>com.thirdparty.depchk.Dependency#threshold=50 ms</code>.
+ */
+final class JfrParseEvents extends ParseEvents {
+
+	private static final long SKIP_THRESHOLD_BYTES = Long.getLong("depchk.jfr.skipThresholdBytes", 64L * 1024);
+
+	private static final EventType PHASE_TYPE = EventType.getEventType(PhaseEvent.class);
+	private static final EventType DEPENDENCY_TYPE = EventType.getEventType(DependencyEvent.class);
+	private static final EventType SKIP_TYPE = EventType.getEventType(SkippedSubtreeEvent.class);
+
+	@Name("com.thirdparty.depchk.Phase")
+	@Label("Dependency-Check Parse Phase")
+	@Description("One parseScan (header) or parseVulnerabilities (findings) call of the Dependency-Check parser")
+	@Category({ "Fortify", "Dependency-Check" })
+	static final class PhaseEvent extends Event {
+		@Label("Phase")
+		String phase;
+		@Label("Session Id")
+		String sessionId;
+		@Label("Bytes Read")
+		@DataAmount
+		long bytes;
+		@Label("Tokens")
+		long tokens;
+		@Label("Dependencies")
+		long dependencies;
+		@Label("Vulnerabilities")
+		long vulnerabilities;
+	}
+
+	@Name("com.thirdparty.depchk.Dependency")
+	@Label("Dependency-Check Dependency")
+	@Description("Parsing of one dependency object, including its vulnerabilities")
+	@Category({ "Fortify", "Dependency-Check" })
+	@Threshold("10 ms")
+	static final class DependencyEvent extends Event {
+		@Label("Session Id")
+		String sessionId;
+		@Label("SHA-1")
+		String sha1;
+		@Label("Offset")
+		@Description("Byte offset of the dependency in the report, relative to the dependency if decoded in parallel")
+		long offset;
+		@Label("Length")
+		@DataAmount
+		long length;
+		@Label("Tokens")
+		long tokens;
+		@Label("Vulnerabilities")
+		int vulnerabilities;
+	}
+
+	@Name("com.thirdparty.depchk.SkippedSubtree")
+	@Label("Dependency-Check Skipped Subtree")
+	@Description("Large JSON subtree stepped over without being used")
+	@Category({ "Fortify", "Dependency-Check" })
+	static final class SkippedSubtreeEvent extends Event {
+		@Label("Session Id")
+		String sessionId;
+		@Label("Field")
+		String field;
+		@Label("Offset")
+		long offset;
+		@Label("Length")
+		@DataAmount
+		long length;
+	}
+
+	@Override
+	Object beginPhase() {
+		if (!PHASE_TYPE.isEnabled()) {
+			return null;
+		}
+		final PhaseEvent event = new PhaseEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	void endPhase(final Object event, final ParseMetrics.Phase phase, final String sessionId, final long bytes,
+			final long tokens, final long dependencies, final long vulnerabilities) {
+		final PhaseEvent phaseEvent = (PhaseEvent) event;
+		phaseEvent.end();
+		if (phaseEvent.shouldCommit()) {
+			phaseEvent.phase = phase.name();
+			phaseEvent.sessionId = sessionId;
+			phaseEvent.bytes = bytes;
+			phaseEvent.tokens = tokens;
+			phaseEvent.dependencies = dependencies;
+			phaseEvent.vulnerabilities = vulnerabilities;
+			phaseEvent.commit();
+		}
+	}
+
+	@Override
+	Object beginDependency() {
+		if (!DEPENDENCY_TYPE.isEnabled()) {
+			return null;
+		}
+		final DependencyEvent event = new DependencyEvent();
+		event.begin();
+		return event;
+	}
+
+	@Override
+	void endDependency(final Object event, final String sessionId, final String sha1, final long offset,
+			final long length, final long tokens, final int vulnerabilities) {
+		final DependencyEvent dependencyEvent = (DependencyEvent) event;
+		dependencyEvent.end();
+		if (dependencyEvent.shouldCommit()) {
+			dependencyEvent.sessionId = sessionId;
+			dependencyEvent.sha1 = sha1;
+			dependencyEvent.offset = offset;
+			dependencyEvent.length = length;
+			dependencyEvent.tokens = tokens;
+			dependencyEvent.vulnerabilities = vulnerabilities;
+			dependencyEvent.commit();
+		}
+	}
+
+	@Override
+	boolean isSkipEnabled() {
+		return SKIP_TYPE.isEnabled();
+	}
+
+	@Override
+	void skipped(final String sessionId, final String field, final long offset, final long length) {
+		if (length < SKIP_THRESHOLD_BYTES) {
+			return;
+		}
+		final SkippedSubtreeEvent event = new SkippedSubtreeEvent();
+		if (event.shouldCommit()) {
+			event.sessionId = sessionId;
+			event.field = field;
+			event.offset = offset;
+			event.length = length;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.fortify.plugin.api.ScanBuilder;
+import com.fortify.plugin.api.ScanData;
+import com.fortify.plugin.api.ScanEntry;
+import com.fortify.plugin.api.StaticVulnerabilityBuilder;
+import com.fortify.plugin.api.VulnerabilityHandler;
+
+import java.io.BufferedInputStream;
+import java.io.FileNotFoundException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Predicate;
+
+/**
+ * <P>Stand-ins for the SSC side of the plugin API used by benchmarks.
+ * <BR>Implemented as dynamic proxies so they do not depend on the full method set of the plugin-api interfaces.
+ * Builders ignore all calls, the vulnerability handler only counts started vulnerabilities; the recording handler
+ * digests every call so that the output of separate parses can be compared.
+ */
+final class BenchmarkScanData {
+
+	private static final StaticVulnerabilityBuilder NO_OP_VULNERABILITY_BUILDER = noOp(StaticVulnerabilityBuilder.class);
+	private static final ScanBuilder NO_OP_SCAN_BUILDER = noOp(ScanBuilder.class);
+
+	private BenchmarkScanData() {
+	}
+
+	/**
+	 * @return scan data serving the given report file for every entry request matching its name
+	 */
+	@SuppressWarnings("unchecked")
+	static ScanData of(final Path report, final String sessionId) {
+		final String entryName = report.getFileName().toString();
+		return (ScanData) Proxy.newProxyInstance(ScanData.class.getClassLoader(), new Class<?>[] { ScanData.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getSessionId":
+						return sessionId;
+					case "getScanEntries":
+						return Collections.singletonList(entry(entryName));
+					case "getInputStream":
+						if (args[0] instanceof Predicate && !((Predicate<String>) args[0]).test(entryName)) {
+							throw new FileNotFoundException("No scan entry matches in " + report);
+						}
+						return new BufferedInputStream(Files.newInputStream(report));
+					case "toString":
+						return "ScanData[" + report + "]";
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	private static ScanEntry entry(final String entryName) {
+		return (ScanEntry) Proxy.newProxyInstance(ScanEntry.class.getClassLoader(), new Class<?>[] { ScanEntry.class },
+				(proxy, method, args) -> "getEntryName".equals(method.getName()) ? entryName : null);
+	}
+
+	static ScanBuilder scanBuilder() {
+		return NO_OP_SCAN_BUILDER;
+	}
+
+	static CountingHandler vulnerabilityHandler() {
+		return new CountingHandler();
+	}
+
+	static final class CountingHandler {
+		long vulnerabilities;
+
+		final VulnerabilityHandler handler = (VulnerabilityHandler) Proxy.newProxyInstance(
+				VulnerabilityHandler.class.getClassLoader(), new Class<?>[] { VulnerabilityHandler.class },
+				(proxy, method, args) -> {
+					if ("startStaticVulnerability".equals(method.getName())) {
+						vulnerabilities++;
+						return NO_OP_VULNERABILITY_BUILDER;
+					}
+					return null;
+				});
+	}
+
+	static RecordingHandler recordingHandler() {
+		return new RecordingHandler();
+	}
+
+	/**
+	 * Handler digesting the started vulnerabilities and all calls on their builders, in order.
+	 */
+	static final class RecordingHandler {
+		long vulnerabilities;
+		private final MessageDigest digest;
+
+		final VulnerabilityHandler handler = (VulnerabilityHandler) Proxy.newProxyInstance(
+				VulnerabilityHandler.class.getClassLoader(), new Class<?>[] { VulnerabilityHandler.class },
+				(proxy, method, args) -> {
+					if ("startStaticVulnerability".equals(method.getName())) {
+						vulnerabilities++;
+						record(method.getName(), args);
+						return recordingBuilder();
+					}
+					return null;
+				});
+
+		RecordingHandler() {
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		/**
+		 * @return hex digest of everything recorded, the handler cannot be used afterwards
+		 */
+		String digest() {
+			final StringBuilder hex = new StringBuilder();
+			for (final byte b : digest.digest()) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		}
+
+		private StaticVulnerabilityBuilder recordingBuilder() {
+			return (StaticVulnerabilityBuilder) Proxy.newProxyInstance(
+					StaticVulnerabilityBuilder.class.getClassLoader(),
+					new Class<?>[] { StaticVulnerabilityBuilder.class },
+					(proxy, method, args) -> {
+						record(method.getName(), args);
+						return null;
+					});
+		}
+
+		private void record(final String method, final Object[] args) {
+			digest.update((method + Arrays.deepToString(args) + '\n').getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static <T> T noOp(final Class<T> type) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> null));
+	}
+}
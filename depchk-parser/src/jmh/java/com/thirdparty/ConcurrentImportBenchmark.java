@@ -0,0 +1,139 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.fortify.plugin.api.ScanData;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <P>Simultaneous scan imports through one plugin instance.
+ * <BR>Every operation runs <code>threads</code> imports at the same time, each with its own session and recording
+ * handler, and fails if the output of any of them differs from a single threaded reference parse.
+ * <BR>The <code>imports</code> and <code>vulnerabilities</code> secondary results give imports/s and vulns/s; compare
+ * them across <code>threads</code> for scaling.
+ * <BR>Shape is <code>dependencies:vulnerabilitiesPerDependency:evidenceSize</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentImportBenchmark {
+
+	private static final long SEED = 42L;
+
+	@Param({ "2000:5:10" })
+	public String shape;
+
+	@Param({ "1", "2", "4", "8" })
+	public int threads;
+
+	private final AtomicLong sessions = new AtomicLong();
+	private Path report;
+	private String expectedDigest;
+	private DepChkParserPlugin plugin;
+	private ExecutorService importers;
+
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public long imports;
+		public long vulnerabilities;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			imports = 0;
+			vulnerabilities = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		final String[] dims = shape.split(":");
+		report = Files.createTempFile("depchk-bench-", ".json");
+		try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(report))) {
+			new ScanGenerator(SEED, Integer.parseInt(dims[0]), Integer.parseInt(dims[1]), Integer.parseInt(dims[2]),
+					ScanGenerator.SCHEMA_1_1).write(out);
+		}
+		plugin = new DepChkParserPlugin();
+		plugin.start();
+		expectedDigest = runImport().digest();
+		importers = Executors.newFixedThreadPool(threads);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		importers.shutdownNow();
+		plugin.stop();
+		Files.deleteIfExists(report);
+	}
+
+	@Benchmark
+	public long imports(final Counters counters) throws Exception {
+		final List<Future<BenchmarkScanData.RecordingHandler>> results = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++) {
+			results.add(importers.submit(this::runImport));
+		}
+		long vulnerabilities = 0;
+		for (final Future<BenchmarkScanData.RecordingHandler> result : results) {
+			final BenchmarkScanData.RecordingHandler vh = result.get();
+			final String digest = vh.digest();
+			if (!expectedDigest.equals(digest)) {
+				throw new IllegalStateException("Concurrent import produced different output: " + digest
+						+ " instead of " + expectedDigest);
+			}
+			vulnerabilities += vh.vulnerabilities;
+		}
+		counters.imports += threads;
+		counters.vulnerabilities += vulnerabilities;
+		return vulnerabilities;
+	}
+
+	/**
+	 * Run both passes of one import the way SSC does, in a session of its own.
+	 */
+	private BenchmarkScanData.RecordingHandler runImport() throws Exception {
+		final ScanData scanData = BenchmarkScanData.of(report, "stress-" + sessions.incrementAndGet());
+		plugin.parseScan(scanData, BenchmarkScanData.scanBuilder());
+		final BenchmarkScanData.RecordingHandler vh = BenchmarkScanData.recordingHandler();
+		plugin.parseVulnerabilities(scanData, vh.handler);
+		return vh;
+	}
+}
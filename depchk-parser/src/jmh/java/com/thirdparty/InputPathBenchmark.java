@@ -0,0 +1,116 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.fortify.plugin.api.ScanData;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <P>Findings pass throughput of the report input paths of {@link ReportContent}.
+ * <BR><code>stream</code> parses from the entry stream, <code>bytes</code> reads the report into an array first and
+ * <code>mapped</code> spools it to a temporary file and parses from the mapping.
+ * <BR>Shape is <code>dependencies:vulnerabilitiesPerDependency:evidenceSize</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InputPathBenchmark {
+
+	private static final long SEED = 42L;
+
+	@Param({ "1000:5:10", "20000:5:50" })
+	public String shape;
+
+	@Param({ "stream", "bytes", "mapped" })
+	public String inputPath;
+
+	private Path report;
+	private double reportMegabytes;
+	private ScanData scanData;
+	private DepChkParserPlugin plugin;
+
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public double megabytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			megabytes = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		final String[] dims = shape.split(":");
+		report = Files.createTempFile("depchk-bench-", ".json");
+		try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(report))) {
+			new ScanGenerator(SEED, Integer.parseInt(dims[0]), Integer.parseInt(dims[1]), Integer.parseInt(dims[2]),
+					ScanGenerator.SCHEMA_1_1).write(out);
+		}
+		reportMegabytes = Files.size(report) / (1024.0 * 1024.0);
+		scanData = BenchmarkScanData.of(report, "benchmark");
+		plugin = new DepChkParserPlugin(mapThreshold(inputPath), !"stream".equals(inputPath), true);
+		plugin.start();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		plugin.stop();
+		Files.deleteIfExists(report);
+	}
+
+	@Benchmark
+	public long parseVulnerabilities(final Counters counters) throws Exception {
+		final BenchmarkScanData.CountingHandler vh = BenchmarkScanData.vulnerabilityHandler();
+		plugin.parseVulnerabilities(scanData, vh.handler);
+		counters.megabytes += reportMegabytes;
+		return vh.vulnerabilities;
+	}
+
+	private static long mapThreshold(final String inputPath) {
+		switch (inputPath) {
+		case "stream":
+			return -1;
+		case "bytes":
+			return Long.MAX_VALUE;
+		case "mapped":
+			return 0;
+		default:
+			throw new IllegalArgumentException(inputPath);
+		}
+	}
+}
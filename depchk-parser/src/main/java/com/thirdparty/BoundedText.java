@@ -0,0 +1,109 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * <P>Per-field length limits for text copied out of a report.
+ * <BR>A value longer than its limit is cut at the limit and counted in {@link ParseMetrics#truncatedFields}. The
+ * limits are in characters and set with the system properties <code>depchk.limit.description</code> (default 32768),
+ * <code>depchk.limit.path</code> (default 4096) and <code>depchk.limit.value</code> (default 1024, all other fields).
+ * <BR>The limits bound what is kept, not what is read. The XML parser reads text in chunks and stops collecting at
+ * the limit. Jackson has no way to read part of a string token: it buffers the whole value in its token buffer
+ * before any of it can be read, so a JSON string is held in full once while it is parsed. Oversized JSON strings
+ * are only copied through {@link JsonParser#getText(Writer)} into a bounded buffer, which avoids a second
+ * full-length copy as a <code>String</code>.
+ */
+final class BoundedText {
+
+	static final int DESCRIPTION_LIMIT = limit("depchk.limit.description", 32 * 1024);
+	static final int PATH_LIMIT = limit("depchk.limit.path", 4 * 1024);
+	static final int VALUE_LIMIT = limit("depchk.limit.value", 1024);
+
+	private BoundedText() {
+	}
+
+	private static int limit(final String property, final int defaultLimit) {
+		return Math.max(1, Integer.getInteger(property, defaultLimit));
+	}
+
+	/**
+	 * @return text of the current token, cut at the limit
+	 */
+	static String read(final JsonParser jsonParser, final int limit, final ParseMetrics metrics) throws IOException {
+		if (jsonParser.currentToken() != JsonToken.VALUE_STRING || jsonParser.getTextLength() <= limit) {
+			return jsonParser.getText();
+		}
+		final Prefix prefix = new Prefix(limit);
+		jsonParser.getText(prefix);
+		metrics.truncatedFields++;
+		return prefix.toString();
+	}
+
+	/**
+	 * @return length of the prefix to keep, one less than the limit if a surrogate pair would be split
+	 */
+	static int cut(final CharSequence text, final int limit) {
+		return Character.isHighSurrogate(text.charAt(limit - 1)) ? limit - 1 : limit;
+	}
+
+	/**
+	 * Writer keeping only the first characters written to it.
+	 */
+	private static final class Prefix extends Writer {
+		private final StringBuilder text;
+		private final int limit;
+
+		Prefix(final int limit) {
+			this.text = new StringBuilder(limit);
+			this.limit = limit;
+		}
+
+		@Override
+		public void write(final char[] cbuf, final int off, final int len) {
+			final int n = Math.min(len, limit - text.length());
+			if (n > 0) {
+				text.append(cbuf, off, n);
+			}
+		}
+
+		@Override
+		public void write(final String str, final int off, final int len) {
+			final int n = Math.min(len, limit - text.length());
+			if (n > 0) {
+				text.append(str, off, off + n);
+			}
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public String toString() {
+			text.setLength(cut(text, limit));
+			return text.toString();
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * <P>Parser wrapper counting the tokens read through it into {@link ParseMetrics}.
+ * <BR>Tokens consumed by {@link #skipChildren()} are not counted; each skipped subtree is counted once instead, and
+ * recorded as a flight recorder event if it is large.
+ */
+final class CountingJsonParser extends JsonParserDelegate {
+
+	private final ParseMetrics metrics;
+
+	CountingJsonParser(final JsonParser delegate, final ParseMetrics metrics) {
+		super(delegate);
+		this.metrics = metrics;
+	}
+
+	@Override
+	public JsonToken nextToken() throws IOException {
+		metrics.tokens++;
+		return delegate.nextToken();
+	}
+
+	@Override
+	public JsonToken nextValue() throws IOException {
+		metrics.tokens++;
+		return delegate.nextValue();
+	}
+
+	@Override
+	public String nextFieldName() throws IOException {
+		metrics.tokens++;
+		return delegate.nextFieldName();
+	}
+
+	@Override
+	public boolean nextFieldName(final SerializableString str) throws IOException {
+		metrics.tokens++;
+		return delegate.nextFieldName(str);
+	}
+
+	@Override
+	public String nextTextValue() throws IOException {
+		metrics.tokens++;
+		return delegate.nextTextValue();
+	}
+
+	// not delegated by JsonParserDelegate, needed to hand the remaining input over to RawJsonSkipper
+	@Override
+	public int releaseBuffered(final OutputStream out) throws IOException {
+		return delegate.releaseBuffered(out);
+	}
+
+	@Override
+	public int getText(final Writer writer) throws IOException {
+		return delegate.getText(writer);
+	}
+
+	@Override
+	public JsonParser skipChildren() throws IOException {
+		final JsonToken token = delegate.currentToken();
+		if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+			metrics.skippedSubtrees++;
+			if (ParseEvents.INSTANCE.isSkipEnabled()) {
+				final String field = delegate.getCurrentName();
+				final long offset = delegate.getTokenLocation().getByteOffset();
+				delegate.skipChildren();
+				ParseEvents.INSTANCE.skipped(metrics.getSessionId(), field, offset,
+						delegate.getCurrentLocation().getByteOffset() - offset);
+			} else {
+				delegate.skipChildren();
+			}
+		}
+		return this;
+	}
+}
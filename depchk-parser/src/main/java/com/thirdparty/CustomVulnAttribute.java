@@ -43,9 +43,13 @@ public enum CustomVulnAttribute implements com.fortify.plugin.spi.VulnerabilityA
 	CVSS_AVAIL_IMPACT(VulnAttribute.CVSS_AVAIL_IMPACT.attrName(), AttrType.STRING),
 	SEVERITY(VulnAttribute.SEVERITY.attrName(),AttrType.STRING),
 	CWE(VulnAttribute.CWE.attrName(), AttrType.STRING),
+	CWE_NAME(VulnAttribute.CWE_NAME.attrName(), AttrType.STRING),
 	CWE_DESCRIPTION(VulnAttribute.DESCRIPTION.attrName(), AttrType.LONG_STRING),
 	CVSS_ACCESS_VECTOR(VulnAttribute.CVSS_ACCESS_VECTOR.attrName(),AttrType.STRING),
-	CVSS_ACCESS_COMPLEXITY(VulnAttribute.CVSS_ACCESS_COMPLEXITY.attrName(),AttrType.STRING)
+	CVSS_ACCESS_COMPLEXITY(VulnAttribute.CVSS_ACCESS_COMPLEXITY.attrName(),AttrType.STRING),
+	LAST_CHANGE_DATE(VulnAttribute.LAST_CHANGE_DATE.attrName(), AttrType.DATE),
+	ARTIFACT_BUILD_DATE(VulnAttribute.ARTIFACT_BUILD_DATE.attrName(), AttrType.DATE),
+	VULNERABILITY_LIST(VulnAttribute.VULNERABILITY_LIST.attrName(), AttrType.LONG_STRING)
     ;
 
     private final AttrType attributeType;
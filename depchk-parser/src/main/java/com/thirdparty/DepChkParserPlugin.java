@@ -17,33 +17,139 @@ package com.thirdparty;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
-import com.fortify.plugin.api.BasicVulnerabilityBuilder;
 import com.fortify.plugin.api.ScanBuilder;
 import com.fortify.plugin.api.ScanData;
+import com.fortify.plugin.api.ScanEntry;
 import com.fortify.plugin.api.ScanParsingException;
-import com.fortify.plugin.api.StaticVulnerabilityBuilder;
 import com.fortify.plugin.api.VulnerabilityHandler;
 import com.fortify.plugin.spi.ParserPlugin;
-import com.thirdparty.scan.DateDeserializer;
+import com.thirdparty.scan.CvssValue;
+import com.thirdparty.scan.CweNormalizer;
 import com.thirdparty.scan.DepVuln;
+import com.thirdparty.scan.DepVuln.GenPriority;
+import com.thirdparty.scan.Dependency;
+import com.thirdparty.scan.SeverityMapper;
+import com.thirdparty.scan.TimestampParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
-import static com.thirdparty.CustomVulnAttribute.*;
+import static com.thirdparty.BoundedText.DESCRIPTION_LIMIT;
+import static com.thirdparty.BoundedText.PATH_LIMIT;
 
 public class DepChkParserPlugin implements ParserPlugin<CustomVulnAttribute> {
 	private static final Logger LOG = LoggerFactory.getLogger(DepChkParserPlugin.class);
 
 	private static final JsonFactory JSON_FACTORY;
-	private static final DateDeserializer DATE_DESERIALIZER = new DateDeserializer();
+	static final TimestampParser TIMESTAMP_PARSER = new TimestampParser();
+	static final CweNormalizer CWE_NORMALIZER = new CweNormalizer();
+	private static final ParseEvents EVENTS = ParseEvents.INSTANCE;
+	static final FindingFilter FILTER = FindingFilter.fromSystemProperties();
+	private static final VulnerabilityEmitter.Aggregation AGGREGATION =
+			VulnerabilityEmitter.Aggregation.fromSystemProperty();
+	private static final byte[] OBJECT_START = { '{' };
+	private static final byte[] EMPTY_OBJECT = { '{', '}' };
 
 	static {
 		JSON_FACTORY = new JsonFactory();
 		JSON_FACTORY.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+		// field names are dispatched by reference, see VulnAttribute.Context
+		JSON_FACTORY.enable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES);
+		JSON_FACTORY.enable(JsonFactory.Feature.INTERN_FIELD_NAMES);
+	}
+
+	private static final int MAX_PENDING_SESSIONS = 64;
+
+	// Worker threads decoding dependencies of one report in parallel, 1 parses on the calling thread only
+	private static final int PARALLELISM = Math.max(1, Integer.getInteger("depchk.parallelism", 1));
+	// Directory of the dependency cache, the cache is disabled if not set
+	private static final String CACHE_DIR = System.getProperty("depchk.cache.dir");
+	private static final long CACHE_MAX_BYTES = Long.getLong("depchk.cache.maxBytes", 256L * 1024 * 1024);
+	// Plain report files from this size on are memory-mapped in the findings pass, other reports are streamed
+	static final long MAP_THRESHOLD = Long.getLong("depchk.input.mapThreshold", 32L * 1024 * 1024);
+	// Copy reports that cannot be mapped in place into an array (below MAP_THRESHOLD) or a temporary file
+	static final boolean COPY_ENTRIES = Boolean.getBoolean("depchk.input.copy");
+	// Parse known report schemas against their own field set, see ReportLayout
+	private static final boolean SCHEMA_LAYOUTS = !Boolean.getBoolean("depchk.schema.generic");
+	// Report entries of one scan parsed at the same time
+	private static final int ENTRY_PARALLELISM = Math.max(1,
+			Integer.getInteger("depchk.entryParallelism", Runtime.getRuntime().availableProcessors()));
+	// Findings an entry worker may be ahead of the emitter
+	private static final int ENTRY_QUEUE_CAPACITY = 1024;
+	// Dependency objects up to this size are cut out as chunks for the pipeline, larger ones are streamed
+	private static final int MAX_DEPENDENCY_BYTES = Math.max(1,
+			Integer.getInteger("depchk.limit.dependencyBytes", 1024 * 1024));
+	private static final int CHUNK_SIZE = 4 * 1024;
+
+	// Header pass metrics waiting for the findings pass of the same session, so that one summary is logged per
+	// session; beyond MAX_PENDING_SESSIONS the oldest is dropped, its findings pass then logs its own summary
+	private final Map<String, ParseMetrics> pendingMetrics = Collections.synchronizedMap(
+			new LinkedHashMap<String, ParseMetrics>() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<String, ParseMetrics> eldest) {
+					return size() > MAX_PENDING_SESSIONS;
+				}
+			});
+	private ForkJoinPool workers;
+	private DependencyCache cache;
+	private boolean cacheUnavailable;
+	private final long mapThreshold;
+	private final boolean copyEntries;
+	private final boolean schemaLayouts;
+	private final int parallelism;
+	private final String cacheDir;
+	private final VulnerabilityEmitter.Aggregation aggregation;
+
+	public DepChkParserPlugin() {
+		this(MAP_THRESHOLD, COPY_ENTRIES, SCHEMA_LAYOUTS);
+	}
+
+	/**
+	 * @param mapThreshold report size from which the findings pass memory-maps the report, negative to stream it
+	 * @param copyEntries true to copy reports that cannot be mapped in place, see {@link ReportContent}
+	 * @param schemaLayouts false to parse every report with {@link ReportLayout#GENERIC}
+	 */
+	DepChkParserPlugin(final long mapThreshold, final boolean copyEntries, final boolean schemaLayouts) {
+		this(mapThreshold, copyEntries, schemaLayouts, PARALLELISM, CACHE_DIR, AGGREGATION);
+	}
+
+	/**
+	 * @param parallelism worker threads decoding the dependencies of a report, 1 to decode on the calling thread
+	 * @param cacheDir directory of the dependency cache, null to parse without it
+	 * @param aggregation how the findings of a dependency are emitted
+	 */
+	DepChkParserPlugin(final long mapThreshold, final boolean copyEntries, final boolean schemaLayouts,
+			final int parallelism, final String cacheDir, final VulnerabilityEmitter.Aggregation aggregation) {
+		this.mapThreshold = mapThreshold;
+		this.copyEntries = copyEntries;
+		this.schemaLayouts = schemaLayouts;
+		this.parallelism = Math.max(1, parallelism);
+		this.cacheDir = cacheDir;
+		this.aggregation = aggregation;
 	}
 
 	@Override
@@ -54,6 +160,44 @@ public class DepChkParserPlugin implements ParserPlugin<CustomVulnAttribute> {
 	@Override
 	public void stop() throws Exception {
 		LOG.info("DepChkParserPlugin plugin is stopping");
+		pendingMetrics.clear();
+		shutdownWorkers();
+		releaseCache();
+	}
+
+	private synchronized ExecutorService getWorkers() {
+		if (workers == null) {
+			workers = new ForkJoinPool(parallelism);
+		}
+		return workers;
+	}
+
+	private synchronized void shutdownWorkers() {
+		if (workers != null) {
+			workers.shutdownNow();
+			workers = null;
+		}
+	}
+
+	/**
+	 * @return the dependency cache, null if it is not configured or could not be opened
+	 */
+	private synchronized DependencyCache getCache() {
+		if (cache == null && cacheDir != null && !cacheUnavailable) {
+			try {
+				cache = DependencyCache.open(Paths.get(cacheDir), CACHE_MAX_BYTES);
+			} catch (IOException | RuntimeException e) {
+				LOG.warn("Dependency cache could not be opened in " + cacheDir + ", parsing without it", e);
+				cacheUnavailable = true;
+			}
+		}
+		return cache;
+	}
+
+	private synchronized void releaseCache() {
+		// records are complete files, nothing to flush
+		cache = null;
+		cacheUnavailable = false;
 	}
 
 	@Override
@@ -64,48 +208,158 @@ public class DepChkParserPlugin implements ParserPlugin<CustomVulnAttribute> {
 	@Override
 	public void parseScan(final ScanData scanData, final ScanBuilder scanBuilder)
 			throws ScanParsingException, IOException {
-		parseJson(scanData, scanBuilder, this::parseScanInternal);
+		final ParseMetrics metrics = new ParseMetrics(scanData.getSessionId());
+		metrics.startPhase(ParseMetrics.Phase.HEADER);
+		final List<ScanEntry> entries = ReportInput.reportEntries(scanData);
+		final ReportHeader header = new ReportHeader();
+		if (entries.size() <= 1) {
+			parseHeader(scanData, entries.isEmpty() ? null : entries.get(0), header, metrics);
+		} else {
+			// reports of a multi-module build are merged into one scan
+			for (final ScanEntry entry : entries) {
+				final ReportHeader entryHeader = new ReportHeader();
+				parseHeader(scanData, entry, entryHeader, metrics);
+				header.merge(entryHeader);
+			}
+		}
+		metrics.endPhase();
+		header.applyTo(scanBuilder);
+		if (metrics.getSessionId() != null) {
+			pendingMetrics.put(metrics.getSessionId(), metrics);
+		}
 		// complete scan building
 		scanBuilder.completeScan();
 	}
 
-	private void parseScanInternal(final ScanData scanData, final ScanBuilder scanBuilder, final JsonParser jsonParser)
+	private void parseHeader(final ScanData scanData, final ScanEntry entry, final ReportHeader header,
+			final ParseMetrics metrics) throws ScanParsingException, IOException {
+		try (final BufferedInputStream content = ReportInput.open(scanData, entry)) {
+			if (ReportInput.Format.detect(content) == ReportInput.Format.XML) {
+				try (final XmlReportParser xmlParser = new XmlReportParser(content, metrics)) {
+					xmlParser.parseHeader(header);
+				}
+			} else {
+				parseScanInternal(content, header, metrics);
+			}
+		}
+	}
+
+	/**
+	 * Header-only pass over the report. Reading stops as soon as <code>reportSchema</code>,
+	 * <code>scanInfo.engineVersion</code> and <code>reportDate</code> are resolved. If the <code>dependencies</code>
+	 * array is reached before that, it is skipped on the byte level and parsing resumes after it.
+	 */
+	private void parseScanInternal(final InputStream content, final ReportHeader header, final ParseMetrics metrics)
 			throws IOException, ScanParsingException {
-		// load data from top-level object fields
-		while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
-			final VulnAttribute vulnAttr = VulnAttribute.get(jsonParser.getCurrentName());
+		JsonParser jsonParser = new CountingJsonParser(JSON_FACTORY.createParser(content), metrics);
+		try {
 			jsonParser.nextToken();
-			if (vulnAttr == null) {
-				skipChildren(jsonParser);
-				continue;
-			}
+			assertStartObject(jsonParser);
+			// load data from top-level object fields
+			while (!header.isComplete() && jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+				final VulnAttribute vulnAttr = VulnAttribute.Context.TOP_LEVEL.get(jsonParser.getCurrentName());
+				jsonParser.nextToken();
+				if (vulnAttr == null) {
+					skipChildren(jsonParser);
+					continue;
+				}
 
-			switch (vulnAttr) {
-			case REPORTSCHEMA:
-				scanBuilder.setHostName(jsonParser.getText());
-				break;
-			case SCANINFO:
-				scanBuilder.setEngineVersion(getEngineVersion(jsonParser));
-				break;
-			case SCANDATE:
-				scanBuilder.setScanDate(DATE_DESERIALIZER.convert(jsonParser.getText()));
-				break;
+				switch (vulnAttr) {
+				case REPORTSCHEMA:
+					header.setReportSchema(jsonParser.getText());
+					break;
+				case SCANINFO:
+					header.setEngineVersion(getEngineVersion(jsonParser));
+					break;
+				case PROJECT_INFO:
+					loadProjectInfo(jsonParser, header);
+					break;
+				case SCANDATE:
+					header.setReportDate(readReportDate(jsonParser));
+					break;
+				case DEPENDENCIES:
+					jsonParser = skipRaw(content, jsonParser, metrics);
+					break;
+
+				// Skip unneeded fields
+				default:
+					skipChildren(jsonParser);
+					break;
+				}
+			}
+		} finally {
+			metrics.bytesRead += jsonParser.getCurrentLocation().getByteOffset();
+			jsonParser.close();
+		}
+	}
 
-			// Skip unneeded fields
-			default:
+	private void loadProjectInfo(final JsonParser jsonParser, final ReportHeader header)
+			throws IOException, ScanParsingException {
+		if (jsonParser.currentToken() != START_OBJECT) {
+			skipChildren(jsonParser);
+			return;
+		}
+		while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
+			final VulnAttribute vulnAttr = VulnAttribute.Context.PROJECT_INFO.get(jsonParser.getCurrentName());
+			jsonParser.nextToken();
+			if (vulnAttr == VulnAttribute.SCANDATE) {
+				header.setReportDate(readReportDate(jsonParser));
+			} else {
 				skipChildren(jsonParser);
-				break;
 			}
 		}
 	}
 
-	private static <T> void parseJson(final ScanData scanData, final T object, final Callback<T> fn)
-			throws ScanParsingException, IOException {
-		try (final InputStream content = scanData.getInputStream(x -> x.endsWith(".json"));
-				final JsonParser jsonParser = JSON_FACTORY.createParser(content)) {
-			jsonParser.nextToken();
-			assertStartObject(jsonParser);
-			fn.apply(scanData, object, jsonParser);
+	/**
+	 * Skip the array or object the parser is positioned at without tokenizing it.
+	 *
+	 * @return parser positioned so that the next token is the next top-level field name or the end of the report
+	 */
+	private JsonParser skipRaw(final InputStream content, final JsonParser jsonParser, final ParseMetrics metrics)
+			throws IOException {
+		final JsonToken token = jsonParser.currentToken();
+		if (token != JsonToken.START_ARRAY && token != START_OBJECT) {
+			return jsonParser;
+		}
+		final ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+		if (jsonParser.releaseBuffered(buffered) < 0) {
+			// not a byte based parser, fall back to token level skipping
+			jsonParser.skipChildren();
+			return jsonParser;
+		}
+		metrics.skippedSubtrees++;
+		final String field = jsonParser.getCurrentName();
+		final long offset = jsonParser.getTokenLocation().getByteOffset();
+		// the location counts consumed bytes only, the released ones are counted by the skipper
+		final long containerStart = jsonParser.getCurrentLocation().getByteOffset();
+		metrics.bytesRead += containerStart;
+		jsonParser.close();
+		final RawJsonSkipper skipper = new RawJsonSkipper(
+				new SequenceInputStream(new ByteArrayInputStream(buffered.toByteArray()), content));
+		skipper.skipContainer(1);
+		metrics.bytesRead += skipper.getBytesSkipped();
+		if (EVENTS.isSkipEnabled()) {
+			EVENTS.skipped(metrics.getSessionId(), field, offset, containerStart + skipper.getBytesSkipped() - offset);
+		}
+		// Resume with a fresh parser; the remaining top-level fields are wrapped back into an object
+		final InputStream remainder = skipper.nextNonWhitespace() == ','
+				? skipper.remainder(OBJECT_START)
+				: new ByteArrayInputStream(EMPTY_OBJECT);
+		final JsonParser resumed = new CountingJsonParser(JSON_FACTORY.createParser(remainder), metrics);
+		resumed.nextToken();
+		return resumed;
+	}
+
+	private static <T> void parseJson(final ScanData scanData, final ReportContent content, final T object,
+			final ParseMetrics metrics, final Callback<T> fn) throws ScanParsingException, IOException {
+		try (final JsonParser jsonParser = new CountingJsonParser(content.createParser(JSON_FACTORY), metrics)) {
+			try {
+				jsonParser.nextToken();
+				assertStartObject(jsonParser);
+				fn.apply(scanData, object, jsonParser, metrics);
+			} finally {
+				metrics.bytesRead += jsonParser.getCurrentLocation().getByteOffset();
+			}
 		}
 	}
 
@@ -118,7 +372,7 @@ public class DepChkParserPlugin implements ParserPlugin<CustomVulnAttribute> {
 	private String getEngineVersion(final JsonParser jsonParser) throws IOException {
 		String ev = null;
 		while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
-			final VulnAttribute vulnAttr = VulnAttribute.get(jsonParser.getCurrentName());
+			final VulnAttribute vulnAttr = VulnAttribute.Context.SCAN_INFO.get(jsonParser.getCurrentName());
 			jsonParser.nextToken();
 			if (vulnAttr == null) {
 				skipChildren(jsonParser);
@@ -147,35 +401,140 @@ public class DepChkParserPlugin implements ParserPlugin<CustomVulnAttribute> {
 	}
 
 	private interface Callback<T> {
-		void apply(final ScanData scanData, final T object, final JsonParser jsonParser)
+		void apply(final ScanData scanData, final T object, final JsonParser jsonParser, final ParseMetrics metrics)
 				throws ScanParsingException, IOException;
 	}
 
 	@Override
 	public void parseVulnerabilities(final ScanData scanData, final VulnerabilityHandler vh)
 			throws ScanParsingException, IOException {
-		parseJson(scanData, vh, this::parseVulnerabilitiesInternal);
+		ParseMetrics metrics = scanData.getSessionId() == null ? null : pendingMetrics.remove(scanData.getSessionId());
+		if (metrics == null) {
+			metrics = new ParseMetrics(scanData.getSessionId());
+		}
+		metrics.startPhase(ParseMetrics.Phase.FINDINGS);
+		try {
+			final List<ScanEntry> entries = ReportInput.reportEntries(scanData);
+			final VulnerabilityEmitter emitter = new VulnerabilityEmitter(vh, metrics, FILTER, aggregation);
+			if (entries.size() <= 1) {
+				parseFindings(scanData, entries.isEmpty() ? null : entries.get(0), emitter, metrics);
+			} else {
+				parseEntries(scanData, entries, emitter, metrics);
+			}
+			emitter.flush();
+		} finally {
+			metrics.logSummary();
+		}
 	}
 
-	private void parseVulnerabilitiesInternal(final ScanData scanData, final VulnerabilityHandler vh,
-			final JsonParser jsonParser) throws ScanParsingException, IOException {
-		int debugCounter = 0;
+	private void parseFindings(final ScanData scanData, final ScanEntry entry, final FindingSink sink,
+			final ParseMetrics metrics) throws ScanParsingException, IOException {
+		try (final ReportContent content = ReportInput.load(scanData, entry, mapThreshold, copyEntries)) {
+			if (ReportInput.Format.detect(content.stream()) == ReportInput.Format.XML) {
+				try (final XmlReportParser xmlParser = new XmlReportParser(content.stream(), metrics)) {
+					xmlParser.parseFindings(sink);
+				}
+			} else {
+				parseJson(scanData, content, sink, metrics, (sd, target, jsonParser, m) -> parseVulnerabilitiesInternal(
+						content.remainder(), target, jsonParser, m));
+			}
+		}
+	}
+
+	/**
+	 * Parse several report entries at the same time, one worker thread per entry, and emit their findings on this
+	 * thread, entry after entry in name order. A dependency (by sha1) already contained in an earlier entry is not
+	 * emitted again.
+	 */
+	private void parseEntries(final ScanData scanData, final List<ScanEntry> entries,
+			final VulnerabilityEmitter emitter, final ParseMetrics metrics) throws ScanParsingException, IOException {
+		final ExecutorService entryWorkers = Executors.newFixedThreadPool(Math.min(entries.size(), ENTRY_PARALLELISM),
+				runnable -> {
+					final Thread thread = new Thread(runnable, "depchk-entry-" + metrics.getSessionId());
+					thread.setDaemon(true);
+					return thread;
+				});
+		try {
+			final List<EntryQueue> queues = new ArrayList<>(entries.size());
+			final List<Future<ParseMetrics>> results = new ArrayList<>(entries.size());
+			for (final ScanEntry entry : entries) {
+				final EntryQueue queue = new EntryQueue(ENTRY_QUEUE_CAPACITY);
+				queues.add(queue);
+				results.add(entryWorkers.submit(() -> {
+					final ParseMetrics entryMetrics = new ParseMetrics(metrics.getSessionId());
+					Throwable failure = null;
+					try {
+						parseFindings(scanData, entry, queue, entryMetrics);
+					} catch (IOException | ScanParsingException | RuntimeException | Error e) {
+						failure = e;
+					} finally {
+						queue.finish(failure);
+					}
+					return entryMetrics;
+				}));
+			}
+			final Map<String, Integer> firstEntryOfDependency = new HashMap<>();
+			for (int i = 0; i < queues.size(); i++) {
+				EntryQueue.Finding finding;
+				while ((finding = queues.get(i).take()) != null) {
+					final String sha1 = finding.dependency.getUniqueId();
+					if (sha1 != null) {
+						final Integer first = firstEntryOfDependency.putIfAbsent(sha1, i);
+						if (first != null && first != i) {
+							metrics.duplicates++;
+							continue;
+						}
+					}
+					emitter.accept(finding.dependency, finding.fn);
+				}
+				metrics.add(results.get(i).get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while parsing report entries");
+		} catch (ExecutionException e) {
+			throw new IOException("Report entry could not be parsed", e.getCause());
+		} finally {
+			entryWorkers.shutdownNow();
+		}
+	}
+
+	private void parseVulnerabilitiesInternal(final InputStream content, final FindingSink sink,
+			final JsonParser jsonParser, final ParseMetrics metrics) throws ScanParsingException, IOException {
+		String reportSchema = null;
+		String engineVersion = null;
 		while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
-			final String fieldName = jsonParser.getCurrentName();
+			final VulnAttribute vulnAttr = VulnAttribute.Context.TOP_LEVEL.get(jsonParser.getCurrentName());
 			jsonParser.nextToken();
-			if (fieldName.equals("dependencies")) {
+			if (vulnAttr == VulnAttribute.REPORTSCHEMA && schemaLayouts) {
+				reportSchema = jsonParser.getText();
+			} else if (vulnAttr == VulnAttribute.SCANINFO && schemaLayouts
+					&& jsonParser.currentToken() == START_OBJECT) {
+				engineVersion = getEngineVersion(jsonParser);
+			} else if (vulnAttr == VulnAttribute.DEPENDENCIES) {
 				if (jsonParser.currentToken() != JsonToken.START_ARRAY) {
 					throw new ScanParsingException(String.format("Expected array as a value for findings at %s",
 							jsonParser.getTokenLocation()));
 				}
-				while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
-					LOG.info(String.format("json Token" + jsonParser.getCurrentToken().toString()));
-
-					assertStartObject(jsonParser);
-					final String uniqueId = parseVulnerability(scanData, vh, jsonParser);
-					if (LOG.isDebugEnabled()) {
-						LOG.debug(String.format("Parsed vulnerability %06d/%s in session %s", ++debugCounter, uniqueId,
-								scanData.getSessionId()));
+				final ReportLayout layout = ReportLayout.select(reportSchema, engineVersion);
+				final DependencyCache dependencyCache = getCache();
+				if ((parallelism > 1 || dependencyCache != null)
+						&& parseDependencyChunks(content, jsonParser, sink, dependencyCache, layout, metrics)) {
+					// the parser handed its input over to the pipeline, nothing after the array is needed
+					return;
+				}
+				try (final SubtreeBuffer reorderBuffer = new SubtreeBuffer(JSON_FACTORY);
+						final SubtreeBuffer suppressedBuffer = new SubtreeBuffer(JSON_FACTORY)) {
+					final ParseContext context = new ParseContext(metrics, sink, layout, new Dependency(),
+							reorderBuffer, suppressedBuffer);
+					while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+						assertStartObject(jsonParser);
+						context.dependency.clear();
+						loadDependency(jsonParser, context);
+						if (metrics.countDependency()) {
+							metrics.trace("Parsed dependency %06d/%s, %d vulnerabilities so far", metrics.dependencies,
+									context.dependency.getUniqueId(), metrics.vulnerabilities);
+						}
 					}
 				}
 			} else {
@@ -184,41 +543,153 @@ public class DepChkParserPlugin implements ParserPlugin<CustomVulnAttribute> {
 		}
 	}
 
-	private String parseVulnerability(final ScanData scanData, final VulnerabilityHandler vh,
-			final JsonParser jsonParser) throws IOException, ScanParsingException {
-		final DepVuln fn = new DepVuln();
-		loadDependency(jsonParser, fn, vh); // Load data from one scan json vulnerability to the Finding object
+	/**
+	 * Cut the <code>dependencies</code> array the parser is positioned at into raw elements on this thread and
+	 * decode them on the worker pool if there is one; vulnerabilities are still emitted on this thread, in report
+	 * order. Elements found in the dependency cache are replayed from it.
+	 *
+	 * @return false if the parser cannot hand over its buffered input, the array is then left to the caller
+	 */
+	private boolean parseDependencyChunks(final InputStream content, final JsonParser jsonParser,
+			final FindingSink sink, final DependencyCache dependencyCache, final ReportLayout layout,
+			final ParseMetrics metrics) throws IOException, ScanParsingException {
+		final ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+		if (jsonParser.releaseBuffered(buffered) < 0) {
+			return false;
+		}
+		// released bytes are not part of the parser's location, the splitter counts them
+		RawJsonSkipper splitter = new RawJsonSkipper(
+				new SequenceInputStream(new ByteArrayInputStream(buffered.toByteArray()), content));
+		// up to four dependencies per worker are decoded ahead of the emitter
+		final DependencyPipeline pipeline = new DependencyPipeline(parallelism > 1 ? getWorkers() : null,
+				parallelism * 4, (chunk, decoded) -> decodeDependency(dependencyCache, layout, chunk, decoded), sink,
+				metrics);
+		boolean finished = false;
+		try {
+			int b = splitter.nextNonWhitespace();
+			while (b != ']') {
+				if (b == ',') {
+					b = splitter.nextNonWhitespace();
+				}
+				if (b == -1) {
+					throw new EOFException("Unexpected end of input in dependencies array");
+				}
+				if (b != '{') {
+					throw new ScanParsingException(String.format("Expected object in dependencies array, found '%c'", b));
+				}
+				final ByteArrayOutputStream chunk = new ByteArrayOutputStream(CHUNK_SIZE);
+				if (splitter.readContainer(b, chunk, MAX_DEPENDENCY_BYTES)) {
+					pipeline.submit(chunk.toByteArray());
+				} else {
+					// too large to be held as a chunk, stream it to the sink once everything before it is emitted
+					pipeline.finish();
+					final InputStream rest = splitter.remainder(chunk.toByteArray());
+					metrics.bytesRead += splitter.getBytesSkipped() - chunk.size();
+					metrics.oversizedDependencies++;
+					splitter = new RawJsonSkipper(parseOversizedDependency(rest, sink, layout, metrics));
+				}
+				b = splitter.nextNonWhitespace();
+			}
+			pipeline.finish();
+			finished = true;
+		} finally {
+			metrics.bytesRead += splitter.getBytesSkipped();
+			if (!finished) {
+				pipeline.cancel();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parse one dependency directly from the stream, the way the sequential path does.
+	 *
+	 * @param content stream starting at the opening bracket of the dependency
+	 * @return stream of the content after the dependency
+	 */
+	private InputStream parseOversizedDependency(final InputStream content, final FindingSink sink,
+			final ReportLayout layout, final ParseMetrics metrics) throws IOException, ScanParsingException {
+		final ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+		try (final JsonParser jsonParser = new CountingJsonParser(JSON_FACTORY.createParser(content), metrics);
+				final SubtreeBuffer reorderBuffer = new SubtreeBuffer(JSON_FACTORY);
+				final SubtreeBuffer suppressedBuffer = new SubtreeBuffer(JSON_FACTORY)) {
+			jsonParser.nextToken();
+			assertStartObject(jsonParser);
+			loadDependency(jsonParser,
+					new ParseContext(metrics, sink, layout, new Dependency(), reorderBuffer, suppressedBuffer));
+			metrics.dependencies++;
+			metrics.bytesRead += jsonParser.getCurrentLocation().getByteOffset();
+			jsonParser.releaseBuffered(buffered);
+		}
+		return new SequenceInputStream(new ByteArrayInputStream(buffered.toByteArray()), content);
+	}
 
-		return fn.getUniqueId();
+	/**
+	 * Decode one raw dependency object, called on the worker pool.
+	 */
+	private void decodeDependency(final DependencyCache dependencyCache, final ReportLayout layout, final byte[] chunk,
+			final DependencyPipeline.Decoded decoded) throws IOException, ScanParsingException {
+		final byte[] key = dependencyCache != null ? dependencyCache.key(layout, FILTER.dropsSuppressed(), chunk) : null;
+		if (key != null) {
+			if (dependencyCache.replay(key, decoded)) {
+				decoded.counts.cacheHits++;
+				return;
+			}
+			decoded.counts.cacheMisses++;
+		}
+		try (final JsonParser jsonParser = new CountingJsonParser(JSON_FACTORY.createParser(chunk), decoded.counts)) {
+			jsonParser.nextToken();
+			assertStartObject(jsonParser);
+			loadDependency(jsonParser, ParseContext.decoding(decoded, layout));
+		}
+		if (key != null) {
+			dependencyCache.put(key, decoded);
+		}
 	}
 
-	private void loadDependency(final JsonParser jsonParser, DepVuln fn, final VulnerabilityHandler vh)
+	/**
+	 * Load one dependency and pass its vulnerabilities to the sink.
+	 * <BR>Vulnerabilities listed before the identifying fields of the dependency are captured into the reorder
+	 * buffer and replayed once the whole dependency is read. Without a reorder buffer the sink must not use the
+	 * dependency before the object is complete, like {@link DependencyPipeline.Decoded}.
+	 * <BR><code>suppressedVulnerabilities</code> are only counted unless the {@link FindingFilter} keeps them.
+	 */
+	private void loadDependency(final JsonParser jsonParser, final ParseContext context)
 			throws IOException, ScanParsingException {
-
+		final Dependency dependency = context.dependency;
+		final ParseMetrics metrics = context.metrics;
+		final Object event = EVENTS.beginDependency();
+		final long offset = event != null ? jsonParser.getTokenLocation().getByteOffset() : -1;
+		final long tokens = metrics.tokens;
+		int vulnerabilities = 0;
+		boolean deferred = false;
+		boolean deferredSuppressed = false;
 		while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
-			VulnAttribute vulnAttr = VulnAttribute.get(jsonParser.getCurrentName());
-			final String fieldName = jsonParser.getCurrentName();
-
-			LOG.info(String.format("Field Name in Load Dependency = " + fieldName));
-
+			final VulnAttribute vulnAttr = VulnAttribute.Context.DEPENDENCY.get(jsonParser.getCurrentName());
 			jsonParser.nextToken();
-			LOG.info(String.format("current token %s", jsonParser.getCurrentToken().name()));
 
-			if (fieldName.equals("vulnerabilities")) {
+			if (vulnAttr == VulnAttribute.VULNERABILITIES || vulnAttr == VulnAttribute.SUPPRESSED_VULNERABILITIES) {
 				if (jsonParser.currentToken() != JsonToken.START_ARRAY) {
 					throw new ScanParsingException(String.format("Expected array as a value for findings at %s",
 							jsonParser.getTokenLocation()));
 				}
-				while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
-					LOG.info(String.format("json Token" + jsonParser.getCurrentToken().toString()));
-
-					assertStartObject(jsonParser);
-					processFindings(jsonParser, fn, vh);
-					LOG.info(String.format("Parsed vulnerability " + fn.getUniqueId()));
-
+				final boolean suppressed = vulnAttr == VulnAttribute.SUPPRESSED_VULNERABILITIES;
+				if (suppressed && FILTER.dropsSuppressed()) {
+					metrics.suppressed += countElements(jsonParser);
+					continue;
 				}
-			} else {
-				skipChildren(jsonParser);
+				final SubtreeBuffer buffer = suppressed ? context.suppressedBuffer : context.reorderBuffer;
+				if (buffer != null && !dependency.isIdentified()) {
+					buffer.capture(jsonParser);
+					if (!deferred && !deferredSuppressed) {
+						metrics.reorderedDependencies++;
+					}
+					deferred |= !suppressed;
+					deferredSuppressed |= suppressed;
+					continue;
+				}
+				vulnerabilities += loadVulnerabilities(jsonParser, context);
+				continue;
 			}
 			if (vulnAttr == null) {
 				skipChildren(jsonParser);
@@ -230,103 +701,170 @@ public class DepChkParserPlugin implements ParserPlugin<CustomVulnAttribute> {
 			// Custom attributes:
 
 			case SHA1:
-				fn.setUniqueId(jsonParser.getText());
-				LOG.info(String.format("SHA1= %s", jsonParser.getText()));
-
+				dependency.setUniqueId(readValue(jsonParser, metrics));
 				break;
 
 			case FILE_NAME:
-				fn.setFileName(jsonParser.getText());
-				LOG.info(String.format("FileName= %s", jsonParser.getText()));
-
+				dependency.setFileName(BoundedText.read(jsonParser, PATH_LIMIT, metrics));
 				break;
 			case FILE_PATH:
-				fn.setFileName(jsonParser.getText());
-
+				dependency.setFilePath(BoundedText.read(jsonParser, PATH_LIMIT, metrics));
 				break;
 			case DESCRIPTION:
-				fn.setComment(jsonParser.getText());
+				dependency.setDescription(BoundedText.read(jsonParser, DESCRIPTION_LIMIT, metrics));
+				break;
+
+			// Fields following the identifying ones, whatever of those is missing is not in the report:
+			case LICENSE:
+			case PROJECT_REFERENCES:
+			case INCLUDED_BY:
+			case RELATED_DEPENDENCIES:
+			case EVIDENCE_COLLECTED:
+			case PACKAGES:
+			case IDENTIFIERS:
+			case VULNERABILITY_IDS:
+			case SUPPRESSED_VULNERABILITY_IDS:
+				dependency.markHeaderRead();
+				skipChildren(jsonParser);
 				break;
 
 			// Skip unneeded fields:
 			default:
-				LOG.info(String.format("Field Name in loadDependency %s", fieldName));
-
 				skipChildren(jsonParser);
 				break;
 			}
 		}
+		if (deferred) {
+			vulnerabilities += replayVulnerabilities(context.reorderBuffer, context);
+		}
+		if (deferredSuppressed) {
+			vulnerabilities += replayVulnerabilities(context.suppressedBuffer, context);
+		}
+		if (event != null) {
+			EVENTS.endDependency(event, metrics.getSessionId(), dependency.getUniqueId(), offset,
+					jsonParser.getCurrentLocation().getByteOffset() - offset, metrics.tokens - tokens, vulnerabilities);
+		}
 	}
 
-	private void processFindings(final JsonParser jsonParser, DepVuln fn, VulnerabilityHandler vh) throws IOException {
-		loadFinding(jsonParser, fn);
-		LOG.info(String.format("Unique ID in parseVulnerability %s", fn.getUniqueId()));
-		LOG.info(String.format("Unique ID in parseVulnerability %s", fn.getInstanceId()));
-		if (fn.getName() != null) {
-			final StaticVulnerabilityBuilder vb = vh.startStaticVulnerability(fn.getInstanceId()); // Start new
-																									// vulnerability
-																									// building
-			populateVulnerability(vb, fn);
-			vb.completeVulnerability(); // Complete vulnerability building
+	private int replayVulnerabilities(final SubtreeBuffer buffer, final ParseContext context)
+			throws IOException, ScanParsingException {
+		try (final JsonParser replay = buffer.replay()) {
+			replay.nextToken();
+			return loadVulnerabilities(replay, context);
 		}
 	}
 
-	private void loadFinding(final JsonParser jsonParser, DepVuln fn) throws IOException {
+	/**
+	 * Skip the elements of the array the parser is positioned at.
+	 *
+	 * @return number of elements
+	 */
+	private int countElements(final JsonParser jsonParser) throws IOException {
+		int count = 0;
+		while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+			skipChildren(jsonParser);
+			count++;
+		}
+		return count;
+	}
 
-		LOG.info(String.format("Uniqueid = %s", fn.getUniqueId()));
+	/**
+	 * @return number of vulnerabilities read
+	 */
+	private int loadVulnerabilities(final JsonParser jsonParser, final ParseContext context)
+			throws IOException, ScanParsingException {
+		int count = 0;
+		while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+			assertStartObject(jsonParser);
+			processFindings(jsonParser, context);
+			count++;
+		}
+		return count;
+	}
+
+	private void processFindings(final JsonParser jsonParser, final ParseContext context) throws IOException {
+		final DepVuln fn = context.sink.nextRecord();
+		loadFinding(jsonParser, fn, context);
+		context.sink.accept(context.dependency, fn);
+	}
 
+	private void loadFinding(final JsonParser jsonParser, DepVuln fn, final ParseContext context) throws IOException {
+		final ParseMetrics metrics = context.metrics;
+		final VulnAttribute.Context fields = context.layout.vulnerabilityFields();
 		while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
-			VulnAttribute vulnAttr = VulnAttribute.get(jsonParser.getCurrentName());
+			final VulnAttribute vulnAttr = fields.get(jsonParser.getCurrentName());
 			jsonParser.nextToken();
 			if (vulnAttr == null) {
 				skipChildren(jsonParser);
 				continue;
 			}
-			LOG.info(String.format("jSON TEXT = %s", jsonParser.getCurrentName()));
-
 			switch (vulnAttr) {
 
 			// Custom mandatory attributes:
 
 			case VUL_NAME:
-				fn.setName(jsonParser.getText());
+				fn.setName(readValue(jsonParser, metrics));
 				break;
 
 			case CWE:
-				fn.setCWE(jsonParser.getText());
+				fn.applyCwe(CWE_NORMALIZER.normalize(readValue(jsonParser, metrics)));
+				break;
+
+			case CWES:
+				// report schema 1.1 lists CWEs in an array, the first one is used
+				if (jsonParser.currentToken() == JsonToken.START_ARRAY) {
+					while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+						if (fn.getCWE() == null && jsonParser.currentToken() == JsonToken.VALUE_STRING) {
+							fn.applyCwe(CWE_NORMALIZER.normalize(readValue(jsonParser, metrics)));
+						} else {
+							skipChildren(jsonParser);
+						}
+					}
+				}
 				break;
 
 			case CWE_DESCRIPTION:
-				fn.setVulnerabilityAbstract(jsonParser.getText());
+				fn.setVulnerabilityAbstract(BoundedText.read(jsonParser, DESCRIPTION_LIMIT, metrics));
 				break;
 
 			case CVSS_SCORE:
-				fn.setImpact(Float.parseFloat(jsonParser.getText()));
+				fn.setCvssV2Score(readScore(jsonParser));
 				break;
 			case CVSS_ACCESS_VECTOR:
-				fn.setcvssAccessVector(jsonParser.getText());
+				fn.setcvssAccessVector(readCvssValue(jsonParser, metrics));
 				break;
 			case CVSS_ACCESS_COMPLEXITY:
-				fn.setcvssAccessComplexity(jsonParser.getText());
+				fn.setcvssAccessComplexity(readCvssValue(jsonParser, metrics));
 				break;
 			case CVSS_CON_IMPACT:
-				fn.setcvssConfidentialImpact(jsonParser.getText());
+				fn.setcvssConfidentialImpact(readCvssValue(jsonParser, metrics));
 				break;
 			case CVSS_INT_IMPACT:
-				fn.setcvssIntegrityImpact(jsonParser.getText());
+				fn.setcvssIntegrityImpact(readCvssValue(jsonParser, metrics));
 				break;
 			case CVSS_AVAIL_IMPACT:
-				fn.setcvssAvailabilityImpact(jsonParser.getText());
+				fn.setcvssAvailabilityImpact(readCvssValue(jsonParser, metrics));
+				break;
+			case CVSS_AUTHENTICATION:
+				fn.setCvssAuthentication(readCvssValue(jsonParser, metrics));
+				break;
+			case CVSS_V2:
+				loadCvssV2(jsonParser, fn, metrics);
+				break;
+			case CVSS_V3:
+				loadCvssV3(jsonParser, fn, metrics);
 				break;
 
 			case SEVERITY:
-				try {
-					fn.setPriority(com.thirdparty.scan.DepVuln.GenPriority.valueOf(jsonParser.getText()));
-				} catch (IllegalArgumentException e) {
-					fn.setPriority(com.thirdparty.scan.DepVuln.GenPriority.Medium);
-				}
-				LOG.info(String.format("Parser Priority = %s", jsonParser.getText()));
-				LOG.info(String.format("Priority = %s", fn.getPriority().name()));
+				fn.setPriority(readSeverity(jsonParser));
+				break;
+
+			case LAST_CHANGE_DATE:
+			case LAST_MODIFIED_DATE:
+				fn.setLastChangeDate(readOptionalDate(jsonParser));
+				break;
+			case ARTIFACT_BUILD_DATE:
+				fn.setArtifactBuildDate(readOptionalDate(jsonParser));
 				break;
 
 			// Custom attributes
@@ -343,58 +881,210 @@ public class DepChkParserPlugin implements ParserPlugin<CustomVulnAttribute> {
 		}
 	}
 
-	private void populateVulnerability(final StaticVulnerabilityBuilder vb, final DepVuln fn) {
-
-		// Set builtin attributes
-		vb.setKingdom("Environment");
-		// vb.setMappedCategory()
-		vb.setAnalyzer("Configuration");
-		vb.setCategory("Insecure Deployment");
-		vb.setSubCategory("Unpatched Application");
-		if (fn.getCWE() != null) {
-			vb.setMappedCategory(fn.getCWE());
-			vb.setStringCustomAttributeValue(CWE, fn.getCWE());
-
-		}
-		//vb.setCategory(fn.getName()); // REST -> issueName
-		vb.setFileName(fn.getFileName()); // REST -> fullFileName or shortFileName
-		vb.setVulnerabilityAbstract(fn.getVulnerabilityAbstract()); // REST -> brief
-		vb.setImpact(fn.getImpact()); // REST -> impact
-
-		try {
-			vb.setPriority(BasicVulnerabilityBuilder.Priority.valueOf(fn.getPriority().name()));
-			// REST -> friority, UI
-		} catch (IllegalArgumentException e) { // Leave priority unset if the value from scan is unknown
-			// Do Nothing.
+	private void loadCvssV2(final JsonParser jsonParser, final DepVuln fn, final ParseMetrics metrics)
+			throws IOException {
+		if (jsonParser.currentToken() != START_OBJECT) {
+			skipChildren(jsonParser);
+			return;
 		}
-
-		// Set string custom attributes
-		if (fn.getUniqueId() != null) {
-			vb.setStringCustomAttributeValue(UNIQUE_ID, fn.getUniqueId());
+		while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
+			final VulnAttribute vulnAttr = VulnAttribute.Context.CVSS_V2.get(jsonParser.getCurrentName());
+			jsonParser.nextToken();
+			if (vulnAttr == null) {
+				skipChildren(jsonParser);
+				continue;
+			}
+			switch (vulnAttr) {
+			case V2_SCORE:
+				fn.setCvssV2Score(readScore(jsonParser));
+				break;
+			case V2_ACCESS_VECTOR:
+				fn.setcvssAccessVector(readCvssValue(jsonParser, metrics));
+				break;
+			case V2_ACCESS_COMPLEXITY:
+				fn.setcvssAccessComplexity(readCvssValue(jsonParser, metrics));
+				break;
+			case V2_AUTHENTICATION:
+				fn.setCvssAuthentication(readCvssValue(jsonParser, metrics));
+				break;
+			case V2_CON_IMPACT:
+				fn.setcvssConfidentialImpact(readCvssValue(jsonParser, metrics));
+				break;
+			case V2_INT_IMPACT:
+				fn.setcvssIntegrityImpact(readCvssValue(jsonParser, metrics));
+				break;
+			case V2_AVAIL_IMPACT:
+				fn.setcvssAvailabilityImpact(readCvssValue(jsonParser, metrics));
+				break;
+			case V2_SEVERITY:
+				if (fn.getPriority() == null) {
+					fn.setPriority(readSeverity(jsonParser));
+				}
+				break;
+			default:
+				skipChildren(jsonParser);
+				break;
+			}
 		}
+	}
 
-		if (fn.getcvssAccessComplexity() != null) {
-			vb.setStringCustomAttributeValue(CVSS_ACCESS_COMPLEXITY, fn.getcvssAccessComplexity());
+	private void loadCvssV3(final JsonParser jsonParser, final DepVuln fn, final ParseMetrics metrics)
+			throws IOException {
+		if (jsonParser.currentToken() != START_OBJECT) {
+			skipChildren(jsonParser);
+			return;
 		}
-		if (fn.getcvssAccessVector() != null) {
-			vb.setStringCustomAttributeValue(CVSS_ACCESS_VECTOR, fn.getcvssAccessVector());
+		while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
+			final VulnAttribute vulnAttr = VulnAttribute.Context.CVSS_V3.get(jsonParser.getCurrentName());
+			jsonParser.nextToken();
+			if (vulnAttr == null) {
+				skipChildren(jsonParser);
+				continue;
+			}
+			switch (vulnAttr) {
+			case V3_SCORE:
+				fn.setCvssV3Score(readScore(jsonParser));
+				break;
+			case V3_ATTACK_VECTOR:
+				fn.setCvssV3AttackVector(readCvssValue(jsonParser, metrics));
+				break;
+			case V3_ATTACK_COMPLEXITY:
+				fn.setCvssV3AttackComplexity(readCvssValue(jsonParser, metrics));
+				break;
+			case V3_PRIVILEGES_REQUIRED:
+				fn.setCvssV3PrivilegesRequired(readCvssValue(jsonParser, metrics));
+				break;
+			case V3_USER_INTERACTION:
+				fn.setCvssV3UserInteraction(readCvssValue(jsonParser, metrics));
+				break;
+			case V3_SCOPE:
+				fn.setCvssV3Scope(readCvssValue(jsonParser, metrics));
+				break;
+			case V3_CON_IMPACT:
+				fn.setCvssV3ConfidentialityImpact(readCvssValue(jsonParser, metrics));
+				break;
+			case V3_INT_IMPACT:
+				fn.setCvssV3IntegrityImpact(readCvssValue(jsonParser, metrics));
+				break;
+			case V3_AVAIL_IMPACT:
+				fn.setCvssV3AvailabilityImpact(readCvssValue(jsonParser, metrics));
+				break;
+			case V3_SEVERITY:
+				if (fn.getPriority() == null) {
+					fn.setPriority(readSeverity(jsonParser));
+				}
+				break;
+			default:
+				skipChildren(jsonParser);
+				break;
+			}
 		}
-		if (fn.getcvssAvailabilityImpact() != null) {
-			vb.setStringCustomAttributeValue(CVSS_AVAIL_IMPACT, fn.getcvssAvailabilityImpact());
+	}
+
+	/**
+	 * @return text of the current token, cut at {@link BoundedText#VALUE_LIMIT}
+	 */
+	private static String readValue(final JsonParser jsonParser, final ParseMetrics metrics) throws IOException {
+		return BoundedText.read(jsonParser, BoundedText.VALUE_LIMIT, metrics);
+	}
+
+	/**
+	 * @return canonical instance of a CVSS vector value, see {@link CvssValue}
+	 */
+	private static String readCvssValue(final JsonParser jsonParser, final ParseMetrics metrics) throws IOException {
+		if (jsonParser.currentToken() == JsonToken.VALUE_STRING) {
+			final String value = CvssValue.canonical(jsonParser.getTextCharacters(), jsonParser.getTextOffset(),
+					jsonParser.getTextLength());
+			if (value != null) {
+				return value;
+			}
 		}
-		if (fn.getcvssConfidentialImpact() != null) {
-			vb.setStringCustomAttributeValue(CVSS_CON_IMPACT, fn.getcvssConfidentialImpact());
+		return CvssValue.intern(readValue(jsonParser, metrics));
+	}
+
+	/**
+	 * Read a score given either as a number or as a string token, without materializing its text.
+	 *
+	 * @return score or {@link Float#NaN} if the value is not a number
+	 */
+	private float readScore(final JsonParser jsonParser) throws IOException {
+		switch (jsonParser.currentToken()) {
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+		case VALUE_STRING:
+			final float score = SeverityMapper.parseScore(jsonParser.getTextCharacters(), jsonParser.getTextOffset(),
+					jsonParser.getTextLength());
+			if (Float.isNaN(score) && jsonParser.currentToken() != JsonToken.VALUE_STRING) {
+				// exponent notation, let the parser handle it
+				return jsonParser.getFloatValue();
+			}
+			return score;
+		default:
+			skipChildren(jsonParser);
+			return Float.NaN;
 		}
+	}
 
-		if (fn.getcvssIntegrityImpact() != null) {
-			vb.setStringCustomAttributeValue(CVSS_INT_IMPACT, fn.getcvssIntegrityImpact());
+	/**
+	 * Read a timestamp given as a string or as epoch milliseconds, without materializing its text.
+	 *
+	 * @return timestamp or null for a null value
+	 * @throws IllegalArgumentException if the value is not a supported timestamp
+	 */
+	private static Date readDate(final JsonParser jsonParser) throws IOException {
+		switch (jsonParser.currentToken()) {
+		case VALUE_NULL:
+			return null;
+		case VALUE_NUMBER_INT:
+			return new Date(jsonParser.getLongValue());
+		default:
+			return TIMESTAMP_PARSER.parse(jsonParser.getTextCharacters(), jsonParser.getTextOffset(),
+					jsonParser.getTextLength());
 		}
+	}
 
-		// set long string custom attributes
-		if (fn.getDescription() != null) {
-			vb.setStringCustomAttributeValue(DESCRIPTION, fn.getDescription());
+	/**
+	 * @return report timestamp or null for a null value
+	 * @throws ScanParsingException if the value is not a supported timestamp
+	 */
+	private static Date readReportDate(final JsonParser jsonParser) throws IOException, ScanParsingException {
+		try {
+			return readDate(jsonParser);
+		} catch (IllegalArgumentException e) {
+			final ScanParsingException spe = new ScanParsingException(
+					String.format("Invalid reportDate at %s: %s", jsonParser.getTokenLocation(), e.getMessage()));
+			spe.initCause(e);
+			throw spe;
 		}
+	}
 
+	/**
+	 * @return timestamp, or null if the value is missing or not a supported timestamp; an optional date does not
+	 *         fail the import
+	 */
+	private Date readOptionalDate(final JsonParser jsonParser) throws IOException {
+		final JsonToken token = jsonParser.currentToken();
+		if (token != JsonToken.VALUE_STRING && token != JsonToken.VALUE_NUMBER_INT) {
+			skipChildren(jsonParser);
+			return null;
+		}
+		try {
+			return readDate(jsonParser);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
 	}
 
+	/**
+	 * @return priority of the severity name, Medium if the name is not recognized, null if there is no name
+	 */
+	private GenPriority readSeverity(final JsonParser jsonParser) throws IOException {
+		if (jsonParser.currentToken() != JsonToken.VALUE_STRING) {
+			skipChildren(jsonParser);
+			return null;
+		}
+		final GenPriority priority = SeverityMapper.fromSeverity(jsonParser.getTextCharacters(),
+				jsonParser.getTextOffset(), jsonParser.getTextLength());
+		return priority != null ? priority : GenPriority.Medium;
+	}
 }
@@ -0,0 +1,437 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import com.thirdparty.scan.CvssValue;
+import com.thirdparty.scan.DepVuln;
+import com.thirdparty.scan.DepVuln.GenPriority;
+import com.thirdparty.scan.Dependency;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * <P>On-disk cache of decoded dependencies, keyed by a digest of the raw dependency object and the plugin version.
+ * <BR>Records hold the dependency and its already normalized vulnerabilities, so a hit is replayed without field
+ * dispatch or normalization. Each record is a file of its own, named after its key in one of 256 subdirectories of
+ * the cache directory. A record is written to a temporary file and renamed into place, so readers in this or another
+ * JVM sharing the directory see either no record or a complete one, and concurrent writers of the same key just
+ * replace one record by an equal one.
+ * <BR>Each record carries a CRC32 of its payload. A record that does not match is deleted and treated as a miss.
+ * <BR>When the records exceed <code>maxBytes</code>, the least recently used ones are deleted until three quarters
+ * of it are left; a hit updates the modification time of its record. The size is tracked per cache instance and
+ * recounted on every eviction, so with several processes sharing the directory the limit is approximate.
+ * <BR>No lock is held; one cache instance is shared by all parses of the plugin.
+ */
+final class DependencyCache {
+	private static final Logger LOG = LoggerFactory.getLogger(DependencyCache.class);
+
+	// Increase whenever the record layout or the normalization of findings changes
+	private static final int FORMAT_VERSION = 5;
+	private static final int MAGIC = 0x44434332; // "DCC2"
+	private static final int HEADER_SIZE = 16; // magic, format version, payload length, payload CRC32
+	private static final int KEY_SIZE = 16;
+	private static final String RECORD_SUFFIX = ".dep";
+	private static final String TEMP_SUFFIX = ".tmp";
+	// temporary files left by a crashed writer are deleted after this time
+	private static final long STALE_TEMP_MILLIS = TimeUnit.HOURS.toMillis(1);
+	private static final Pattern PLUGIN_VERSION = Pattern.compile("<plugin-info>.*?<version>\\s*(.*?)\\s*</version>",
+			Pattern.DOTALL);
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final Path dir;
+	private final long maxBytes;
+	private final byte[] salt;
+	private final AtomicLong size;
+	private final AtomicBoolean evicting = new AtomicBoolean();
+
+	private DependencyCache(final Path dir, final long maxBytes, final byte[] salt, final long size) {
+		this.dir = dir;
+		this.maxBytes = maxBytes;
+		this.salt = salt;
+		this.size = new AtomicLong(size);
+	}
+
+	/**
+	 * Open or create the cache in the given directory.
+	 */
+	static DependencyCache open(final Path dir, final long maxBytes) throws IOException {
+		Files.createDirectories(dir);
+		// records hold text cut to the configured limits, so they are keyed by the limits too
+		final String salt = "depchk-cache-" + FORMAT_VERSION + "-" + pluginVersion() + "-"
+				+ BoundedText.DESCRIPTION_LIMIT + "/" + BoundedText.PATH_LIMIT + "/" + BoundedText.VALUE_LIMIT;
+		final List<Record> records = list(dir);
+		long size = 0;
+		for (final Record record : records) {
+			size += record.size;
+		}
+		final DependencyCache cache = new DependencyCache(dir, maxBytes, salt.getBytes(StandardCharsets.UTF_8), size);
+		LOG.info("Dependency cache {} opened, {} records", dir, records.size());
+		return cache;
+	}
+
+	/**
+	 * @return digest identifying the raw dependency object and how it is decoded, for this plugin version
+	 */
+	byte[] key(final ReportLayout layout, final boolean dropSuppressed, final byte[] chunk) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		digest.update(salt);
+		// the same dependency may decode differently under another layout
+		digest.update((byte) layout.ordinal());
+		digest.update((byte) (dropSuppressed ? 1 : 0));
+		digest.update(chunk);
+		final byte[] key = new byte[KEY_SIZE];
+		System.arraycopy(digest.digest(), 0, key, 0, KEY_SIZE);
+		return key;
+	}
+
+	/**
+	 * Fill <code>decoded</code> from the cached record of the key.
+	 *
+	 * @return false if there is no intact record for the key
+	 */
+	boolean replay(final byte[] key, final DependencyPipeline.Decoded decoded) {
+		final Path file = file(key);
+		final byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(file);
+		} catch (NoSuchFileException e) {
+			return false;
+		} catch (IOException e) {
+			LOG.debug("Dependency cache record {} could not be read", file, e);
+			return false;
+		}
+		final ByteBuffer in = ByteBuffer.wrap(bytes);
+		if (bytes.length < HEADER_SIZE || in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION
+				|| in.getInt() != bytes.length - HEADER_SIZE || in.getInt() != crc(bytes, HEADER_SIZE)) {
+			LOG.debug("Dependency cache record {} is damaged and deleted", file);
+			try {
+				if (Files.deleteIfExists(file)) {
+					size.addAndGet(-bytes.length);
+				}
+			} catch (IOException e) {
+				LOG.debug("Dependency cache record {} could not be deleted", file, e);
+			}
+			return false;
+		}
+		read(in, decoded);
+		try {
+			// keep records of recent imports when the least recently used ones are evicted
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (IOException e) {
+			// evicted meanwhile, the record was read already
+		}
+		return true;
+	}
+
+	/**
+	 * Store the decoded dependency under the key, unless its record is larger than the cache. A record that cannot
+	 * be written, e.g. on a full disk, is skipped; the parse goes on without it.
+	 */
+	void put(final byte[] key, final DependencyPipeline.Decoded decoded) {
+		final Path file = file(key);
+		if (Files.exists(file)) {
+			return;
+		}
+		try {
+			final byte[] payload = write(decoded);
+			final int length = HEADER_SIZE + payload.length;
+			if (length > maxBytes) {
+				return;
+			}
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(payload.length).putInt(crc(payload, 0));
+			Files.createDirectories(file.getParent());
+			final Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), TEMP_SUFFIX);
+			try {
+				try (final OutputStream out = Files.newOutputStream(temp)) {
+					out.write(header.array());
+					out.write(payload);
+				}
+				Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+			if (size.addAndGet(length) > maxBytes) {
+				evict();
+			}
+		} catch (IOException e) {
+			LOG.debug("Dependency cache record {} could not be written", file, e);
+		}
+	}
+
+	/**
+	 * Delete the least recently used records until three quarters of <code>maxBytes</code> are left. Runs on one
+	 * thread at a time; others skip it and go on.
+	 */
+	private void evict() throws IOException {
+		if (!evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			final List<Record> records = list(dir);
+			records.sort((a, b) -> Long.compare(a.lastUsed, b.lastUsed));
+			long total = 0;
+			for (final Record record : records) {
+				total += record.size;
+			}
+			final long target = maxBytes / 4 * 3;
+			int deleted = 0;
+			for (final Record record : records) {
+				if (total <= target) {
+					break;
+				}
+				if (Files.deleteIfExists(record.file)) {
+					deleted++;
+				}
+				total -= record.size;
+			}
+			size.set(total);
+			LOG.debug("Dependency cache {}: {} records evicted, {} bytes left", dir, deleted, total);
+		} finally {
+			evicting.set(false);
+		}
+	}
+
+	private Path file(final byte[] key) {
+		final char[] name = new char[KEY_SIZE * 2];
+		for (int i = 0; i < KEY_SIZE; i++) {
+			name[2 * i] = HEX[(key[i] >> 4) & 0xf];
+			name[2 * i + 1] = HEX[key[i] & 0xf];
+		}
+		return dir.resolve(new String(name, 0, 2)).resolve(new String(name, 2, name.length - 2) + RECORD_SUFFIX);
+	}
+
+	/**
+	 * @return the records in the cache directory; temporary files of crashed writers are deleted
+	 */
+	private static List<Record> list(final Path dir) throws IOException {
+		final List<Record> records = new ArrayList<>();
+		final long staleBefore = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+		try (final DirectoryStream<Path> subdirs = Files.newDirectoryStream(dir)) {
+			for (final Path subdir : subdirs) {
+				if (!Files.isDirectory(subdir)) {
+					continue;
+				}
+				try (final DirectoryStream<Path> files = Files.newDirectoryStream(subdir)) {
+					for (final Path file : files) {
+						final String name = file.getFileName().toString();
+						try {
+							final BasicFileAttributes attributes = Files.readAttributes(file,
+									BasicFileAttributes.class);
+							final long lastUsed = attributes.lastModifiedTime().toMillis();
+							if (name.endsWith(RECORD_SUFFIX)) {
+								records.add(new Record(file, attributes.size(), lastUsed));
+							} else if (name.endsWith(TEMP_SUFFIX) && lastUsed < staleBefore) {
+								Files.deleteIfExists(file);
+							}
+						} catch (NoSuchFileException e) {
+							// deleted by another process meanwhile
+						}
+					}
+				}
+			}
+		}
+		return records;
+	}
+
+	private static int crc(final byte[] bytes, final int offset) {
+		final CRC32 crc = new CRC32();
+		crc.update(bytes, offset, bytes.length - offset);
+		return (int) crc.getValue();
+	}
+
+	private static byte[] write(final DependencyPipeline.Decoded decoded) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		final DataOutputStream out = new DataOutputStream(bytes);
+		final Dependency dependency = decoded.dependency;
+		writeString(out, dependency.getUniqueId());
+		writeString(out, dependency.getFileName());
+		writeString(out, dependency.getFilePath());
+		writeString(out, dependency.getDescription());
+		out.writeInt(decoded.findings.size());
+		for (final DepVuln fn : decoded.findings) {
+			writeString(out, fn.getName());
+			writeString(out, fn.getCategory());
+			writeString(out, fn.getVulnerabilityAbstract());
+			out.writeFloat(fn.getConfidence() != null ? fn.getConfidence() : Float.NaN);
+			out.writeFloat(fn.getImpact() != null ? fn.getImpact() : Float.NaN);
+			out.writeByte(fn.getPriority() != null ? fn.getPriority().ordinal() : -1);
+			writeString(out, fn.getCategoryId());
+			writeString(out, fn.getCWE());
+			writeString(out, fn.getCweName());
+			writeDate(out, fn.getLastChangeDate());
+			writeDate(out, fn.getArtifactBuildDate());
+			writeString(out, fn.getcvssScore());
+			writeString(out, fn.getcvssAccessVector());
+			writeString(out, fn.getcvssAccessComplexity());
+			writeString(out, fn.getcvssConfidentialImpact());
+			writeString(out, fn.getcvssIntegrityImpact());
+			writeString(out, fn.getcvssAvailabilityImpact());
+			writeString(out, fn.getCvssAuthentication());
+			out.writeFloat(fn.getCvssV2Score());
+			out.writeFloat(fn.getCvssV3Score());
+			writeString(out, fn.getCvssV3AttackVector());
+			writeString(out, fn.getCvssV3AttackComplexity());
+			writeString(out, fn.getCvssV3PrivilegesRequired());
+			writeString(out, fn.getCvssV3UserInteraction());
+			writeString(out, fn.getCvssV3Scope());
+			writeString(out, fn.getCvssV3ConfidentialityImpact());
+			writeString(out, fn.getCvssV3IntegrityImpact());
+			writeString(out, fn.getCvssV3AvailabilityImpact());
+			out.writeBoolean(fn.isScoreMismatch());
+		}
+		// suppressed vulnerabilities dropped while decoding, counted again on every replay
+		out.writeInt((int) decoded.counts.suppressed);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static void read(final ByteBuffer in, final DependencyPipeline.Decoded decoded) {
+		final Dependency dependency = decoded.dependency;
+		dependency.setUniqueId(readString(in));
+		dependency.setFileName(readString(in));
+		dependency.setFilePath(readString(in));
+		dependency.setDescription(readString(in));
+		final GenPriority[] priorities = GenPriority.values();
+		for (int i = in.getInt(); i > 0; i--) {
+			final DepVuln fn = new DepVuln();
+			fn.setName(readString(in));
+			fn.setCategory(readString(in));
+			fn.setVulnerabilityAbstract(readString(in));
+			fn.setConfidence(readFloat(in));
+			fn.setImpact(readFloat(in));
+			final byte priority = in.get();
+			fn.setPriority(priority >= 0 ? priorities[priority] : null);
+			fn.setCategoryId(readString(in));
+			fn.setCWE(readString(in));
+			fn.setCweName(readString(in));
+			fn.setLastChangeDate(readDate(in));
+			fn.setArtifactBuildDate(readDate(in));
+			fn.setcvssScore(readString(in));
+			fn.setcvssAccessVector(CvssValue.intern(readString(in)));
+			fn.setcvssAccessComplexity(CvssValue.intern(readString(in)));
+			fn.setcvssConfidentialImpact(CvssValue.intern(readString(in)));
+			fn.setcvssIntegrityImpact(CvssValue.intern(readString(in)));
+			fn.setcvssAvailabilityImpact(CvssValue.intern(readString(in)));
+			fn.setCvssAuthentication(CvssValue.intern(readString(in)));
+			fn.setCvssV2Score(in.getFloat());
+			fn.setCvssV3Score(in.getFloat());
+			fn.setCvssV3AttackVector(CvssValue.intern(readString(in)));
+			fn.setCvssV3AttackComplexity(CvssValue.intern(readString(in)));
+			fn.setCvssV3PrivilegesRequired(CvssValue.intern(readString(in)));
+			fn.setCvssV3UserInteraction(CvssValue.intern(readString(in)));
+			fn.setCvssV3Scope(CvssValue.intern(readString(in)));
+			fn.setCvssV3ConfidentialityImpact(CvssValue.intern(readString(in)));
+			fn.setCvssV3IntegrityImpact(CvssValue.intern(readString(in)));
+			fn.setCvssV3AvailabilityImpact(CvssValue.intern(readString(in)));
+			fn.markNormalized(in.get() != 0);
+			decoded.addNormalized(fn);
+		}
+		decoded.counts.suppressed += in.getInt();
+	}
+
+	private static void writeString(final DataOutputStream out, final String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(final ByteBuffer in) {
+		final int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		final byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeDate(final DataOutputStream out, final Date value) throws IOException {
+		out.writeLong(value != null ? value.getTime() : Long.MIN_VALUE);
+	}
+
+	private static Date readDate(final ByteBuffer in) {
+		final long time = in.getLong();
+		return time != Long.MIN_VALUE ? new Date(time) : null;
+	}
+
+	private static Float readFloat(final ByteBuffer in) {
+		final float value = in.getFloat();
+		return Float.isNaN(value) ? null : value;
+	}
+
+	/**
+	 * @return version of the plugin from the <code>plugin-info</code> of plugin.xml, filled in by the build
+	 */
+	static String pluginVersion() {
+		try (final InputStream in = DependencyCache.class.getResourceAsStream("/plugin.xml")) {
+			if (in != null) {
+				final Matcher matcher = PLUGIN_VERSION.matcher(new Scanner(in, "UTF-8").useDelimiter("\\A").next());
+				if (matcher.find()) {
+					return matcher.group(1);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Plugin version could not be read, cache records are keyed without it", e);
+		}
+		return "";
+	}
+
+	private static final class Record {
+		private final Path file;
+		private final long size;
+		private final long lastUsed;
+
+		Record(final Path file, final long size, final long lastUsed) {
+			this.file = file;
+			this.size = size;
+			this.lastUsed = lastUsed;
+		}
+	}
+}
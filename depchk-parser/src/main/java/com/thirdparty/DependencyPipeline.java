@@ -0,0 +1,156 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import com.fortify.plugin.api.ScanParsingException;
+import com.thirdparty.scan.DepVuln;
+import com.thirdparty.scan.Dependency;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * <P>Decodes raw dependency chunks on a worker pool and emits their vulnerabilities in report order.
+ * <BR>Without a worker pool chunks are decoded and emitted right away on the calling thread.
+ * <BR>Chunks are submitted and emitted from the calling thread, so the target sink, usually the
+ * {@link VulnerabilityEmitter}, and the handler behind it are only ever used by that thread. At most
+ * <code>window</code> chunks are in flight; submitting another one first waits for and emits the oldest, which
+ * keeps memory bounded when the workers fall behind the reader or the handler falls behind the workers.
+ */
+final class DependencyPipeline {
+
+	interface Decoder {
+		void decode(byte[] chunk, Decoded decoded) throws IOException, ScanParsingException;
+	}
+
+	private final ExecutorService workers;
+	private final Decoder decoder;
+	private final FindingSink target;
+	private final ParseMetrics metrics;
+	private final int window;
+	private final ArrayDeque<Future<Decoded>> inFlight;
+
+	DependencyPipeline(final ExecutorService workers, final int window, final Decoder decoder,
+			final FindingSink target, final ParseMetrics metrics) {
+		this.workers = workers;
+		this.window = window;
+		this.decoder = decoder;
+		this.target = target;
+		this.metrics = metrics;
+		this.inFlight = new ArrayDeque<>(window);
+	}
+
+	void submit(final byte[] chunk) throws IOException, ScanParsingException {
+		if (workers == null) {
+			final Decoded decoded = new Decoded(metrics.getSessionId());
+			decoder.decode(chunk, decoded);
+			emit(decoded);
+			return;
+		}
+		if (inFlight.size() >= window) {
+			emitNext();
+		}
+		inFlight.add(workers.submit(() -> {
+			final Decoded decoded = new Decoded(metrics.getSessionId());
+			decoder.decode(chunk, decoded);
+			return decoded;
+		}));
+	}
+
+	/**
+	 * Wait for and emit all chunks still in flight.
+	 */
+	void finish() throws IOException, ScanParsingException {
+		while (!inFlight.isEmpty()) {
+			emitNext();
+		}
+	}
+
+	/**
+	 * Drop all chunks still in flight, used when parsing failed.
+	 */
+	void cancel() {
+		for (final Future<Decoded> future : inFlight) {
+			future.cancel(true);
+		}
+		inFlight.clear();
+	}
+
+	private void emitNext() throws IOException, ScanParsingException {
+		final Decoded decoded;
+		try {
+			decoded = inFlight.poll().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for dependency decoding");
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof ScanParsingException) {
+				throw (ScanParsingException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException("Dependency decoding failed", cause);
+		}
+		emit(decoded);
+	}
+
+	private void emit(final Decoded decoded) {
+		metrics.add(decoded.counts);
+		for (final DepVuln fn : decoded.findings) {
+			target.accept(decoded.dependency, fn);
+		}
+		if (metrics.countDependency()) {
+			metrics.trace("Parsed dependency %06d/%s, %d vulnerabilities so far", metrics.dependencies,
+					decoded.dependency.getUniqueId(), metrics.vulnerabilities);
+		}
+	}
+
+	/**
+	 * Result of decoding one chunk: the dependency, its normalized vulnerabilities and the worker's counters.
+	 */
+	static final class Decoded implements FindingSink {
+		final Dependency dependency = new Dependency();
+		final ParseMetrics counts;
+		final List<DepVuln> findings = new ArrayList<>();
+
+		Decoded(final String sessionId) {
+			counts = new ParseMetrics(sessionId);
+		}
+
+		@Override
+		public DepVuln nextRecord() {
+			return new DepVuln();
+		}
+
+		@Override
+		public void accept(final Dependency dependency, final DepVuln fn) {
+			VulnerabilityEmitter.normalize(fn);
+			findings.add(fn);
+		}
+
+		void addNormalized(final DepVuln fn) {
+			findings.add(fn);
+		}
+	}
+}
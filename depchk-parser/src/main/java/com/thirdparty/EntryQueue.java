@@ -0,0 +1,117 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import com.fortify.plugin.api.ScanParsingException;
+import com.thirdparty.scan.DepVuln;
+import com.thirdparty.scan.Dependency;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+
+/**
+ * <P>Hands the findings of one report entry, parsed on a worker thread, over to the emitting thread.
+ * <BR>Findings are normalized on the worker and queued with a snapshot of their dependency. The queue is bounded,
+ * so a worker blocks once it is far enough ahead of the emitter.
+ */
+final class EntryQueue implements FindingSink {
+
+	private static final Object END = new Object();
+
+	private final BlockingQueue<Object> queue;
+	private Dependency snapshot;
+
+	EntryQueue(final int capacity) {
+		this.queue = new ArrayBlockingQueue<>(capacity);
+	}
+
+	static final class Finding {
+		final Dependency dependency;
+		final DepVuln fn;
+
+		Finding(final Dependency dependency, final DepVuln fn) {
+			this.dependency = dependency;
+			this.fn = fn;
+		}
+	}
+
+	@Override
+	public DepVuln nextRecord() {
+		return new DepVuln();
+	}
+
+	@Override
+	public void accept(final Dependency dependency, final DepVuln fn) {
+		VulnerabilityEmitter.normalize(fn);
+		if (snapshot == null || !snapshot.sameAs(dependency)) {
+			snapshot = dependency.copy();
+		}
+		put(new Finding(snapshot, fn));
+	}
+
+	/**
+	 * Called by the worker when the entry is done.
+	 *
+	 * @param failure exception the entry failed with, null if it was parsed completely
+	 */
+	void finish(final Throwable failure) {
+		put(failure != null ? failure : END);
+	}
+
+	/**
+	 * Called by the emitting thread.
+	 *
+	 * @return next finding, null when the entry is done
+	 */
+	Finding take() throws IOException, ScanParsingException {
+		final Object next;
+		try {
+			next = queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for report entry findings");
+		}
+		if (next == END) {
+			return null;
+		}
+		if (next instanceof IOException) {
+			throw (IOException) next;
+		}
+		if (next instanceof ScanParsingException) {
+			throw (ScanParsingException) next;
+		}
+		if (next instanceof RuntimeException) {
+			throw (RuntimeException) next;
+		}
+		if (next instanceof Error) {
+			throw (Error) next;
+		}
+		if (next instanceof Throwable) {
+			throw new IOException("Report entry could not be parsed", (Throwable) next);
+		}
+		return (Finding) next;
+	}
+
+	private void put(final Object item) {
+		try {
+			queue.put(item);
+		} catch (InterruptedException e) {
+			// the emitting thread gave up on this entry
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Report entry parsing cancelled");
+		}
+	}
+}
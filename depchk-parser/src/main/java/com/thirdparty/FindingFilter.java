@@ -0,0 +1,200 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.thirdparty.scan.CweNormalizer;
+import com.thirdparty.scan.DepVuln;
+import com.thirdparty.scan.DepVuln.GenPriority;
+import com.thirdparty.scan.Dependency;
+import com.thirdparty.scan.SeverityMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * <P>Drops findings before they are emitted to SSC, configured with system properties:
+ * <BR><code>depchk.filter.minCvss</code>: minimum CVSS score (v3 if present, v2 otherwise), findings without a score
+ * are kept.
+ * <BR><code>depchk.filter.severities</code>: comma separated priorities to keep, e.g. <code>Critical,High</code>,
+ * findings without a priority are kept.
+ * <BR><code>depchk.filter.cwe.allow</code>, <code>depchk.filter.cwe.deny</code>: comma separated CWEs
+ * (<code>79</code>, <code>CWE-79</code>) to keep only, or to drop.
+ * <BR><code>depchk.filter.path.include</code>, <code>depchk.filter.path.exclude</code>: comma separated globs
+ * (<code>*</code>, <code>**</code>, <code>?</code>) the path of the dependency must, or must not, match.
+ * <BR><code>depchk.filter.suppressed</code>: false to import the <code>suppressedVulnerabilities</code> of a
+ * dependency like its other vulnerabilities, by default they are dropped.
+ * <BR>Configured criteria are compiled once into a chain of predicates; without any the chain is empty.
+ */
+final class FindingFilter {
+	private static final Logger LOG = LoggerFactory.getLogger(FindingFilter.class);
+
+	private final List<BiPredicate<Dependency, DepVuln>> rules;
+	private final boolean dropSuppressed;
+
+	private FindingFilter(final List<BiPredicate<Dependency, DepVuln>> rules, final boolean dropSuppressed) {
+		this.rules = rules;
+		this.dropSuppressed = dropSuppressed;
+	}
+
+	static FindingFilter fromSystemProperties() {
+		final List<BiPredicate<Dependency, DepVuln>> rules = new ArrayList<>();
+		final String minCvss = System.getProperty("depchk.filter.minCvss");
+		if (minCvss != null) {
+			try {
+				rules.add(minCvss(Float.parseFloat(minCvss.trim())));
+			} catch (NumberFormatException e) {
+				LOG.warn("Ignoring depchk.filter.minCvss, not a number: " + minCvss);
+			}
+		}
+		final String[] severities = list("depchk.filter.severities");
+		if (severities.length > 0) {
+			rules.add(severities(severities));
+		}
+		final String[] allowedCwes = list("depchk.filter.cwe.allow");
+		if (allowedCwes.length > 0) {
+			final Set<String> allowed = cwes(allowedCwes);
+			rules.add((dependency, fn) -> allowed.contains(fn.getCWE()));
+		}
+		final String[] deniedCwes = list("depchk.filter.cwe.deny");
+		if (deniedCwes.length > 0) {
+			final Set<String> denied = cwes(deniedCwes);
+			rules.add((dependency, fn) -> !denied.contains(fn.getCWE()));
+		}
+		final String[] includedPaths = list("depchk.filter.path.include");
+		if (includedPaths.length > 0) {
+			final Pattern included = globs(includedPaths);
+			rules.add((dependency, fn) -> included.matcher(path(dependency)).matches());
+		}
+		final String[] excludedPaths = list("depchk.filter.path.exclude");
+		if (excludedPaths.length > 0) {
+			final Pattern excluded = globs(excludedPaths);
+			rules.add((dependency, fn) -> !excluded.matcher(path(dependency)).matches());
+		}
+		final boolean dropSuppressed = !"false".equalsIgnoreCase(System.getProperty("depchk.filter.suppressed"));
+		if (!rules.isEmpty()) {
+			LOG.info("Dropping findings by " + rules.size() + " configured criteria");
+		}
+		return new FindingFilter(rules, dropSuppressed);
+	}
+
+	/**
+	 * @param fn normalized finding
+	 * @return true if the finding passes all configured criteria
+	 */
+	boolean accepts(final Dependency dependency, final DepVuln fn) {
+		for (int i = 0; i < rules.size(); i++) {
+			if (!rules.get(i).test(dependency, fn)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if <code>suppressedVulnerabilities</code> are not read but only counted
+	 */
+	boolean dropsSuppressed() {
+		return dropSuppressed;
+	}
+
+	private static BiPredicate<Dependency, DepVuln> minCvss(final float minimum) {
+		return (dependency, fn) -> {
+			final float score = !Float.isNaN(fn.getCvssV3Score()) ? fn.getCvssV3Score() : fn.getCvssV2Score();
+			return Float.isNaN(score) || score >= minimum;
+		};
+	}
+
+	private static BiPredicate<Dependency, DepVuln> severities(final String[] names) {
+		final Set<GenPriority> kept = EnumSet.noneOf(GenPriority.class);
+		for (final String name : names) {
+			final GenPriority priority = SeverityMapper.fromSeverity(name);
+			if (priority != null) {
+				kept.add(priority);
+			} else {
+				LOG.warn("Ignoring unknown severity in depchk.filter.severities: " + name);
+			}
+		}
+		return (dependency, fn) -> fn.getPriority() == null || kept.contains(fn.getPriority());
+	}
+
+	// CWEs as normalized on findings, see DepVuln#applyCwe
+	private static Set<String> cwes(final String[] values) {
+		final CweNormalizer normalizer = new CweNormalizer();
+		final Set<String> canonical = new HashSet<>();
+		for (final String value : values) {
+			final CweNormalizer.Cwe cwe = normalizer.normalize(
+					Character.isDigit(value.charAt(0)) ? "CWE-" + value : value);
+			if (cwe != null && cwe.getId() > 0) {
+				canonical.add(cwe.getCanonical());
+			} else {
+				LOG.warn("Ignoring CWE filter value without a CWE id: " + value);
+			}
+		}
+		return canonical;
+	}
+
+	/**
+	 * One pattern for all globs: <code>**</code> matches across directories, <code>*</code> and <code>?</code>
+	 * within one. Paths are compared with forward slashes.
+	 */
+	static Pattern globs(final String[] globs) {
+		final StringBuilder regex = new StringBuilder();
+		for (final String glob : globs) {
+			if (regex.length() > 0) {
+				regex.append('|');
+			}
+			final String normalized = glob.replace('\\', '/');
+			for (int i = 0; i < normalized.length(); i++) {
+				final char c = normalized.charAt(i);
+				if (c == '*' && i + 1 < normalized.length() && normalized.charAt(i + 1) == '*') {
+					regex.append(".*");
+					i++;
+				} else if (c == '*') {
+					regex.append("[^/]*");
+				} else if (c == '?') {
+					regex.append("[^/]");
+				} else {
+					regex.append(Pattern.quote(String.valueOf(c)));
+				}
+			}
+		}
+		return Pattern.compile(regex.toString());
+	}
+
+	private static String path(final Dependency dependency) {
+		final String path = dependency.getFilePath() != null ? dependency.getFilePath() : dependency.getFileName();
+		return path != null ? path.replace('\\', '/') : "";
+	}
+
+	private static String[] list(final String property) {
+		final String value = System.getProperty(property);
+		if (value == null || value.trim().isEmpty()) {
+			return new String[0];
+		}
+		final List<String> items = new ArrayList<>();
+		for (final String item : value.split(",")) {
+			if (!item.trim().isEmpty()) {
+				items.add(item.trim());
+			}
+		}
+		return items.toArray(new String[0]);
+	}
+}
@@ -0,0 +1,32 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import com.thirdparty.scan.DepVuln;
+import com.thirdparty.scan.Dependency;
+
+/**
+ * <P>Receiver of the vulnerabilities read from a dependency.
+ * <BR>The reader asks for a record with {@link #nextRecord()}, fills it and passes it to
+ * {@link #accept(Dependency, DepVuln)}. Sinks that emit right away hand out the same record every time, sinks that
+ * keep findings for later hand out a new one.
+ */
+interface FindingSink {
+
+	/**
+	 * @return empty record to read the next vulnerability into
+	 */
+	DepVuln nextRecord();
+
+	void accept(Dependency dependency, DepVuln fn);
+}
@@ -0,0 +1,138 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import com.thirdparty.scan.Dependency;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <P>Makes instance ids unique within one scan before they are passed to the handler.
+ * <BR>Only 64-bit hashes are kept, in open-addressing tables of longs, so memory grows by 16 to 32 bytes per finding
+ * however long the ids and paths are. A repeated id is resolved as follows:
+ * <UL>
+ * <LI>a vulnerability repeated for the same file path is a duplicate and is dropped; the caller counts it and it
+ * is logged at debug level. Two different findings are only taken for one if their 64-bit hashes collide, which
+ * for a million findings happens with a probability below 1 in 30 million</LI>
+ * <LI>the same jar listed under another file path gets the id suffixed with a hash of that path, which stays
+ * stable between scans of the same project; a missing path is suffixed like a path of its own. Should the
+ * suffixed id be taken as well, a counter is appended until the id is unique</LI>
+ * </UL>
+ * A hash collision among the ids handed out only adds a suffix, it never drops a finding.
+ * Not thread-safe; used by the emitting thread only.
+ */
+final class InstanceIdRegistry {
+
+	private static final Logger LOG = LoggerFactory.getLogger(InstanceIdRegistry.class);
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	// instance id and file path of every finding seen
+	private final LongSet findings = new LongSet();
+	// instance ids handed out
+	private final LongSet instanceIds = new LongSet();
+
+	/**
+	 * @param instanceId id derived from the dependency and vulnerability
+	 * @return id to emit, or null if the finding duplicates one already emitted
+	 */
+	String resolve(final String instanceId, final Dependency dependency) {
+		final String path = dependency.getFilePath();
+		if (!findings.add(hash(hash(instanceId), path))) {
+			LOG.debug("Dropped duplicate finding {} of {}", instanceId, path);
+			return null;
+		}
+		if (instanceIds.add(hash(instanceId))) {
+			return instanceId;
+		}
+		final String suffixed = instanceId + '-' + Long.toHexString(hash(path) >>> 32);
+		if (instanceIds.add(hash(suffixed))) {
+			return suffixed;
+		}
+		for (int n = 2;; n++) {
+			final String counted = suffixed + '-' + n;
+			if (instanceIds.add(hash(counted))) {
+				return counted;
+			}
+		}
+	}
+
+	private static long hash(final String s) {
+		return hash(FNV_OFFSET, s);
+	}
+
+	/**
+	 * FNV-1a over the chars continuing from <code>h</code>, with a final avalanche step. Never 0 as 0 marks a free
+	 * slot.
+	 */
+	private static long hash(long h, final String s) {
+		if (s != null) {
+			for (int i = 0; i < s.length(); i++) {
+				h ^= s.charAt(i);
+				h *= FNV_PRIME;
+			}
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h != 0 ? h : 1;
+	}
+
+	/**
+	 * Set of non-zero longs with linear probing, kept at most half full.
+	 */
+	private static final class LongSet {
+		private static final int INITIAL_CAPACITY = 1024;
+
+		private long[] table = new long[INITIAL_CAPACITY];
+		private int size;
+
+		/**
+		 * @return true if the value was not in the set yet
+		 */
+		boolean add(final long value) {
+			if (size >= table.length >> 1) {
+				grow();
+			}
+			final int mask = table.length - 1;
+			int i = (int) value & mask;
+			while (table[i] != 0) {
+				if (table[i] == value) {
+					return false;
+				}
+				i = (i + 1) & mask;
+			}
+			table[i] = value;
+			size++;
+			return true;
+		}
+
+		private void grow() {
+			final long[] old = table;
+			table = new long[old.length << 1];
+			final int mask = table.length - 1;
+			for (final long value : old) {
+				if (value != 0) {
+					int i = (int) value & mask;
+					while (table[i] != 0) {
+						i = (i + 1) & mask;
+					}
+					table[i] = value;
+				}
+			}
+		}
+	}
+}
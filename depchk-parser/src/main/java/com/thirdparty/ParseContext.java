@@ -0,0 +1,52 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.thirdparty.scan.Dependency;
+
+/**
+ * <P>State of one dependency reading pass: where the findings go, how they are laid out and where they are counted.
+ * <BR>A context belongs to a single thread of a single parse; the plugin instance itself keeps no parse state, so
+ * several imports can run through it at the same time. State shared between parses lives in caches that are safe
+ * for concurrent use ({@link DependencyCache}, {@link com.thirdparty.scan.CweNormalizer},
+ * {@link com.thirdparty.scan.CvssValue}).
+ */
+final class ParseContext {
+	final ParseMetrics metrics;
+	final FindingSink sink;
+	final ReportLayout layout;
+	// record reused for all dependencies read with this context
+	final Dependency dependency;
+	// null if the sink does not use the dependency before it is complete, see DepChkParserPlugin#loadDependency
+	final SubtreeBuffer reorderBuffer;
+	// the same for suppressedVulnerabilities, which may be deferred next to the vulnerabilities
+	final SubtreeBuffer suppressedBuffer;
+
+	ParseContext(final ParseMetrics metrics, final FindingSink sink, final ReportLayout layout,
+			final Dependency dependency, final SubtreeBuffer reorderBuffer, final SubtreeBuffer suppressedBuffer) {
+		this.metrics = metrics;
+		this.sink = sink;
+		this.layout = layout;
+		this.dependency = dependency;
+		this.reorderBuffer = reorderBuffer;
+		this.suppressedBuffer = suppressedBuffer;
+	}
+
+	/**
+	 * @return context of a pipeline worker decoding one chunk into its own result
+	 */
+	static ParseContext decoding(final DependencyPipeline.Decoded decoded, final ReportLayout layout) {
+		return new ParseContext(decoded.counts, decoded, layout, decoded.dependency, null, null);
+	}
+}
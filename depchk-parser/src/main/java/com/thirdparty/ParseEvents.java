@@ -0,0 +1,84 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <P>Java Flight Recorder events of the parser: one per parse phase, one per dependency taking longer than the
+ * event's threshold, and one per large skipped subtree.
+ * <BR>This class is the no-op implementation used when JFR is not available in the running JVM or
+ * <code>depchk.jfr=false</code> is set; the event classes themselves are only loaded by <code>JfrParseEvents</code>,
+ * which is compiled against JDK 11 in the <code>jfr</code> source set and therefore only referenced by name.
+ * Events are passed around as opaque objects, null while the event type is not enabled in a recording, so a parse
+ * without a recording pays one enabled check per dependency and nothing else.
+ */
+class ParseEvents {
+	private static final Logger LOG = LoggerFactory.getLogger(ParseEvents.class);
+
+	static final ParseEvents INSTANCE = create();
+
+	private static ParseEvents create() {
+		if (!Boolean.parseBoolean(System.getProperty("depchk.jfr", "true"))) {
+			return new ParseEvents();
+		}
+		try {
+			Class.forName("jdk.jfr.Event");
+			return (ParseEvents) Class.forName("com.thirdparty.JfrParseEvents").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			LOG.debug("Flight recorder events are not available: {}", e.toString());
+			return new ParseEvents();
+		}
+	}
+
+	/**
+	 * @return started phase event or null
+	 */
+	Object beginPhase() {
+		return null;
+	}
+
+	void endPhase(final Object event, final ParseMetrics.Phase phase, final String sessionId, final long bytes,
+			final long tokens, final long dependencies, final long vulnerabilities) {
+	}
+
+	/**
+	 * @return started dependency event or null
+	 */
+	Object beginDependency() {
+		return null;
+	}
+
+	/**
+	 * @param offset byte offset of the dependency object in the parsed content
+	 */
+	void endDependency(final Object event, final String sessionId, final String sha1, final long offset,
+			final long length, final long tokens, final int vulnerabilities) {
+	}
+
+	/**
+	 * @return true if skipped subtrees are recorded, their offsets need to be collected then
+	 */
+	boolean isSkipEnabled() {
+		return false;
+	}
+
+	/**
+	 * Record a skipped subtree if it is at least <code>depchk.jfr.skipThresholdBytes</code> long.
+	 */
+	void skipped(final String sessionId, final String field, final long offset, final long length) {
+	}
+}
@@ -0,0 +1,172 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * <P>Counters and phase timings of a single parse of one scan session.
+ * <BR>Counters are plain fields updated from the parsing thread only; nothing is formatted or logged until
+ * {@link #logSummary()} is called at the end of the parse.
+ * <BR>Sampled tracing of individual dependencies is enabled by setting this class' logger to DEBUG. Every
+ * <code>depchk.trace.sampleInterval</code>-th dependency (system property, default 1000) is then traced.
+ */
+final class ParseMetrics {
+	private static final Logger LOG = LoggerFactory.getLogger(ParseMetrics.class);
+
+	// Receives every parse summary; set by development tools running the plugin outside SSC
+	static volatile Consumer<ParseMetrics> summaryListener;
+
+	private static final int TRACE_SAMPLE_INTERVAL = Math.max(1, Integer.getInteger("depchk.trace.sampleInterval", 1000));
+
+	enum Phase {
+		HEADER, FINDINGS
+	}
+
+	private final String sessionId;
+	private final boolean tracing;
+	private final long[] phaseNanos = new long[Phase.values().length];
+	private Phase currentPhase;
+	private long phaseStart;
+	// flight recorder event of the current phase and the counters when it started
+	private Object phaseEvent;
+	private long[] countersAtPhaseStart;
+
+	long dependencies;
+	long vulnerabilities;
+	long tokens;
+	long bytesRead;
+	long skippedSubtrees;
+	long duplicates;
+	long cacheHits;
+	long cacheMisses;
+	long truncatedFields;
+	long oversizedDependencies;
+	long reorderedDependencies;
+	long scoreMismatches;
+	long filtered;
+	long suppressed;
+	long aggregatedFindings;
+
+	ParseMetrics(final String sessionId) {
+		this.sessionId = sessionId;
+		this.tracing = LOG.isDebugEnabled();
+	}
+
+	String getSessionId() {
+		return sessionId;
+	}
+
+	void startPhase(final Phase phase) {
+		endPhase();
+		currentPhase = phase;
+		phaseStart = System.nanoTime();
+		phaseEvent = ParseEvents.INSTANCE.beginPhase();
+		if (phaseEvent != null) {
+			countersAtPhaseStart = new long[] { bytesRead, tokens, dependencies, vulnerabilities };
+		}
+	}
+
+	void endPhase() {
+		if (currentPhase != null) {
+			phaseNanos[currentPhase.ordinal()] += System.nanoTime() - phaseStart;
+			if (phaseEvent != null) {
+				ParseEvents.INSTANCE.endPhase(phaseEvent, currentPhase, sessionId, bytesRead - countersAtPhaseStart[0],
+						tokens - countersAtPhaseStart[1], dependencies - countersAtPhaseStart[2],
+						vulnerabilities - countersAtPhaseStart[3]);
+				phaseEvent = null;
+			}
+			currentPhase = null;
+		}
+	}
+
+	/**
+	 * Add the counters collected separately for part of the report, e.g. by a pipeline worker.
+	 */
+	void add(final ParseMetrics part) {
+		dependencies += part.dependencies;
+		vulnerabilities += part.vulnerabilities;
+		tokens += part.tokens;
+		bytesRead += part.bytesRead;
+		skippedSubtrees += part.skippedSubtrees;
+		duplicates += part.duplicates;
+		cacheHits += part.cacheHits;
+		cacheMisses += part.cacheMisses;
+		truncatedFields += part.truncatedFields;
+		oversizedDependencies += part.oversizedDependencies;
+		reorderedDependencies += part.reorderedDependencies;
+		scoreMismatches += part.scoreMismatches;
+		filtered += part.filtered;
+		suppressed += part.suppressed;
+		aggregatedFindings += part.aggregatedFindings;
+	}
+
+	long getPhaseNanos(final Phase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+
+	/**
+	 * Count one parsed dependency.
+	 *
+	 * @return true if this dependency should be traced
+	 */
+	boolean countDependency() {
+		return ++dependencies % TRACE_SAMPLE_INTERVAL == 0 && tracing;
+	}
+
+	/**
+	 * Count one emitted vulnerability.
+	 *
+	 * @return true if this vulnerability should be traced
+	 */
+	boolean countVulnerability() {
+		return ++vulnerabilities % TRACE_SAMPLE_INTERVAL == 0 && tracing;
+	}
+
+	void trace(final String format, final Object... args) {
+		LOG.debug(String.format("[%s] " + format, prepend(sessionId, args)));
+	}
+
+	/**
+	 * Log one summary line for the parse.
+	 */
+	void logSummary() {
+		endPhase();
+		final Consumer<ParseMetrics> listener = summaryListener;
+		if (listener != null) {
+			listener.accept(this);
+		}
+		if (LOG.isInfoEnabled()) {
+			LOG.info(String.format(
+					"Session %s: %d dependencies, %d vulnerabilities, %d duplicates, %d tokens, %d bytes, %d skipped subtrees, "
+							+ "cache %d hits/%d misses, %d truncated fields, %d oversized dependencies, "
+							+ "%d reordered dependencies, %d CVSS score mismatches, %d filtered, %d suppressed, "
+							+ "%d aggregated findings, header %d ms, findings %d ms",
+					sessionId, dependencies, vulnerabilities, duplicates, tokens, bytesRead, skippedSubtrees,
+					cacheHits, cacheMisses, truncatedFields, oversizedDependencies, reorderedDependencies,
+					scoreMismatches, filtered, suppressed, aggregatedFindings, getPhaseNanos(Phase.HEADER) / 1_000_000,
+					getPhaseNanos(Phase.FINDINGS) / 1_000_000));
+		}
+	}
+
+	private static Object[] prepend(final Object first, final Object[] rest) {
+		final Object[] all = new Object[rest.length + 1];
+		all[0] = first;
+		System.arraycopy(rest, 0, all, 1, rest.length);
+		return all;
+	}
+}
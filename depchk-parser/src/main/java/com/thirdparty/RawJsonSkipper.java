@@ -0,0 +1,154 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * <P>Skips JSON structures on the byte level without tokenizing them.
+ * <BR>Only brackets and string boundaries are tracked, which is enough to find the end of an array or object in
+ * UTF-8 (or any ASCII compatible) content. Used to step over the <code>dependencies</code> array when only header
+ * fields are needed, and to cut the <code>dependencies</code> array into raw elements for the parallel pipeline.
+ */
+final class RawJsonSkipper {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final InputStream in;
+	private final byte[] buf = new byte[BUFFER_SIZE];
+	private int pos;
+	private int limit;
+	private long consumed;
+
+	RawJsonSkipper(final InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 * Skip bytes until the container the reader is currently in is closed.
+	 *
+	 * @param depth number of containers already opened, 1 if positioned right after the opening bracket
+	 */
+	void skipContainer(final int depth) throws IOException {
+		scanContainer(depth, null, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Copy the container that starts with the given, already consumed, opening bracket.
+	 * <BR>Copying stops early once more than <code>maxBytes</code> are copied; the copy then holds the start of the
+	 * container and {@link #remainder(byte[])} can continue from there.
+	 *
+	 * @param copy receives the raw bytes of the container including both brackets
+	 * @return false if the container is larger than <code>maxBytes</code> and was copied only partially
+	 */
+	boolean readContainer(final int open, final ByteArrayOutputStream copy, final int maxBytes) throws IOException {
+		copy.write(open);
+		return scanContainer(1, copy, maxBytes);
+	}
+
+	private boolean scanContainer(int depth, final ByteArrayOutputStream copy, final int maxBytes) throws IOException {
+		boolean inString = false;
+		boolean escaped = false;
+		int start = pos;
+		while (depth > 0) {
+			if (pos == limit) {
+				if (copy != null) {
+					copy.write(buf, start, pos - start);
+					if (copy.size() > maxBytes) {
+						return false;
+					}
+				}
+				if (!fill()) {
+					throw new EOFException("Unexpected end of input while skipping JSON content");
+				}
+				start = pos;
+			}
+			final byte b = buf[pos++];
+			if (inString) {
+				if (escaped) {
+					escaped = false;
+				} else if (b == '\\') {
+					escaped = true;
+				} else if (b == '"') {
+					inString = false;
+				}
+				continue;
+			}
+			switch (b) {
+			case '"':
+				inString = true;
+				break;
+			case '[':
+			case '{':
+				depth++;
+				break;
+			case ']':
+			case '}':
+				depth--;
+				break;
+			default:
+				break;
+			}
+		}
+		if (copy != null) {
+			copy.write(buf, start, pos - start);
+		}
+		return true;
+	}
+
+	/**
+	 * @return next non-whitespace byte which is consumed, or -1 at the end of input
+	 */
+	int nextNonWhitespace() throws IOException {
+		while (pos < limit || fill()) {
+			final byte b = buf[pos++];
+			if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+				return b;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return number of bytes consumed from the underlying stream so far
+	 */
+	long getBytesSkipped() {
+		return consumed - (limit - pos);
+	}
+
+	/**
+	 * @param prefix bytes to be returned before the unread content
+	 * @return stream of the remaining unread content, including bytes already buffered by this reader
+	 */
+	InputStream remainder(final byte[] prefix) {
+		return new SequenceInputStream(new ByteArrayInputStream(prefix),
+				new SequenceInputStream(new ByteArrayInputStream(buf, pos, limit - pos), in));
+	}
+
+	private boolean fill() throws IOException {
+		final int n = in.read(buf, 0, buf.length);
+		if (n <= 0) {
+			return false;
+		}
+		pos = 0;
+		limit = n;
+		consumed += n;
+		return true;
+	}
+}
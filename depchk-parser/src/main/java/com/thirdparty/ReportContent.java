@@ -0,0 +1,279 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <P>Decompressed report content prepared for a full pass over the report.
+ * <BR>The content is
+ * <UL>
+ * <LI>memory-mapped straight from the entry file if the scan data hands out a plain uncompressed file of at least
+ * the map threshold</LI>
+ * <LI>streamed otherwise, so that a compressed entry is never inflated to disk or into an array</LI>
+ * </UL>
+ * When copying is enabled, content that cannot be mapped in place is instead read into a byte array if it is smaller
+ * than the map threshold, and memory-mapped from a temporary file it is spooled to once otherwise.
+ */
+final class ReportContent implements Closeable {
+	private static final Logger LOG = LoggerFactory.getLogger(ReportContent.class);
+
+	private static final int INITIAL_ARRAY_SIZE = 64 * 1024;
+	private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+	private static final long MAP_SEGMENT_SIZE = 1L << 30;
+	private static final int SPOOL_BUFFER_SIZE = 64 * 1024;
+
+	private final byte[] bytes;
+	private final int length;
+	private final InputStream stream;
+	private final Closeable source;
+	private final Path spoolFile;
+
+	private ReportContent(final byte[] bytes, final int length, final InputStream stream, final Closeable source,
+			final Path spoolFile) {
+		this.bytes = bytes;
+		this.length = length;
+		this.stream = stream;
+		this.source = source;
+		this.spoolFile = spoolFile;
+	}
+
+	/**
+	 * @param in decompressed content, closed when the returned content is closed
+	 */
+	static ReportContent stream(final InputStream in) {
+		return new ReportContent(null, 0, in, in, null);
+	}
+
+	/**
+	 * Copy the content into an array or a temporary file.
+	 *
+	 * @param in decompressed content, closed when the returned content is closed
+	 * @param mapThreshold size from which content is memory-mapped instead of read into an array, negative to stream
+	 */
+	static ReportContent copy(final InputStream in, final long mapThreshold) throws IOException {
+		if (mapThreshold < 0) {
+			return stream(in);
+		}
+		final int limit = (int) Math.min(mapThreshold, MAX_ARRAY_SIZE);
+		byte[] buf = new byte[Math.min(limit, INITIAL_ARRAY_SIZE)];
+		int n = 0;
+		try {
+			while (true) {
+				if (n == buf.length) {
+					if (n >= limit) {
+						break;
+					}
+					buf = Arrays.copyOf(buf, (int) Math.min(2L * n, limit));
+				}
+				final int read = in.read(buf, n, buf.length - n);
+				if (read < 0) {
+					return new ReportContent(buf, n, new ByteArrayInputStream(buf, 0, n), null, null);
+				}
+				n += read;
+			}
+			return spool(buf, n, in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Map an uncompressed entry file directly.
+	 *
+	 * @return null if the file is smaller than the threshold or compressed, the stream is then left untouched
+	 */
+	static ReportContent map(final FileInputStream in, final long mapThreshold) throws IOException {
+		final FileChannel channel = in.getChannel();
+		final long position = channel.position();
+		if (mapThreshold < 0 || channel.size() - position < mapThreshold) {
+			return null;
+		}
+		final MappedInputStream mapped = new MappedInputStream(channel, position, channel.size() - position);
+		if (ReportInput.Compression.detect(mapped) != ReportInput.Compression.NONE) {
+			return null;
+		}
+		return new ReportContent(null, 0, mapped, in, null);
+	}
+
+	private static ReportContent spool(final byte[] head, final int headLength, final InputStream in)
+			throws IOException {
+		final Path file = Files.createTempFile("depchk-report-", ".spool");
+		try {
+			try (final OutputStream out = Files.newOutputStream(file)) {
+				out.write(head, 0, headLength);
+				final byte[] buf = head.length >= SPOOL_BUFFER_SIZE ? head : new byte[SPOOL_BUFFER_SIZE];
+				int read;
+				while ((read = in.read(buf)) >= 0) {
+					out.write(buf, 0, read);
+				}
+			}
+			try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				return new ReportContent(null, 0, new MappedInputStream(channel, 0, channel.size()), null, file);
+			}
+		} catch (IOException | RuntimeException e) {
+			delete(file);
+			throw e;
+		}
+	}
+
+	/**
+	 * @return parser over the whole content, reading the byte array directly if the content was loaded into one
+	 */
+	JsonParser createParser(final JsonFactory jsonFactory) throws IOException {
+		return bytes != null ? jsonFactory.createParser(bytes, 0, length) : jsonFactory.createParser(stream);
+	}
+
+	/**
+	 * @return stream of the whole content, supports mark/reset
+	 */
+	InputStream stream() {
+		return stream;
+	}
+
+	/**
+	 * @return content not yet consumed by a parser from {@link #createParser(JsonFactory)}, in addition to what the
+	 * parser releases with <code>releaseBuffered</code>
+	 */
+	InputStream remainder() {
+		return bytes != null ? new ByteArrayInputStream(bytes, length, 0) : stream;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (source != null) {
+				source.close();
+			}
+		} finally {
+			if (spoolFile != null) {
+				delete(spoolFile);
+			}
+		}
+	}
+
+	private static void delete(final Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			// still mapped on some platforms, mappings are only released by the garbage collector
+			LOG.debug("Spooled report {} is deleted on exit", file);
+			file.toFile().deleteOnExit();
+		}
+	}
+
+	/**
+	 * Stream over a file mapped in segments of at most 1 GB.
+	 */
+	private static final class MappedInputStream extends InputStream {
+		private final ByteBuffer[] segments;
+		private int segment;
+		private int markSegment;
+		private int markPosition;
+
+		MappedInputStream(final FileChannel channel, final long position, final long size) throws IOException {
+			segments = new ByteBuffer[(int) Math.max(1, (size + MAP_SEGMENT_SIZE - 1) / MAP_SEGMENT_SIZE)];
+			for (int i = 0; i < segments.length; i++) {
+				final long offset = i * MAP_SEGMENT_SIZE;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + offset,
+						Math.min(MAP_SEGMENT_SIZE, size - offset));
+			}
+		}
+
+		@Override
+		public int read() {
+			final ByteBuffer current = current();
+			return current != null ? current.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) {
+			if (len == 0) {
+				return 0;
+			}
+			final ByteBuffer current = current();
+			if (current == null) {
+				return -1;
+			}
+			final int n = Math.min(len, current.remaining());
+			current.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public long skip(final long n) {
+			final ByteBuffer current = current();
+			if (current == null || n <= 0) {
+				return 0;
+			}
+			final int skipped = (int) Math.min(n, current.remaining());
+			current.position(current.position() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public int available() {
+			final ByteBuffer current = current();
+			return current != null ? current.remaining() : 0;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return true;
+		}
+
+		@Override
+		public synchronized void mark(final int readlimit) {
+			markSegment = segment;
+			markPosition = segments[segment].position();
+		}
+
+		@Override
+		public synchronized void reset() {
+			for (int i = markSegment + 1; i <= segment && i < segments.length; i++) {
+				segments[i].position(0);
+			}
+			segment = markSegment;
+			segments[segment].position(markPosition);
+		}
+
+		/**
+		 * @return segment with remaining bytes, null at the end of the file
+		 */
+		private ByteBuffer current() {
+			while (!segments[segment].hasRemaining()) {
+				if (segment == segments.length - 1) {
+					return null;
+				}
+				segment++;
+			}
+			return segments[segment];
+		}
+	}
+}
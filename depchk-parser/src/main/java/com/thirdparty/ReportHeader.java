@@ -0,0 +1,100 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.fortify.plugin.api.ScanBuilder;
+
+import java.util.Date;
+
+/**
+ * <P>Scan level data read from the report header: <code>reportSchema</code>, <code>scanInfo.engineVersion</code>
+ * and <code>reportDate</code>.
+ * <BR>Headers of several reports of one scan are combined with {@link #merge(ReportHeader)}.
+ * <BR>Each field is tracked as resolved once its key has been seen, so the header reader can stop as soon as
+ * all of them are known even if some values are null.
+ */
+final class ReportHeader {
+
+	private String reportSchema;
+	private String engineVersion;
+	private Date reportDate;
+
+	private boolean reportSchemaResolved;
+	private boolean engineVersionResolved;
+	private boolean reportDateResolved;
+
+	String getReportSchema() {
+		return reportSchema;
+	}
+
+	void setReportSchema(final String reportSchema) {
+		this.reportSchema = reportSchema;
+		this.reportSchemaResolved = true;
+	}
+
+	String getEngineVersion() {
+		return engineVersion;
+	}
+
+	void setEngineVersion(final String engineVersion) {
+		this.engineVersion = engineVersion;
+		this.engineVersionResolved = true;
+	}
+
+	Date getReportDate() {
+		return reportDate;
+	}
+
+	void setReportDate(final Date reportDate) {
+		this.reportDate = reportDate;
+		this.reportDateResolved = true;
+	}
+
+	/**
+	 * Combine the header of another report of the same scan. The newest report decides the scan date and engine
+	 * version; the first known report schema is kept.
+	 */
+	void merge(final ReportHeader other) {
+		if (reportSchema == null) {
+			reportSchema = other.reportSchema;
+		}
+		if (reportDate == null || (other.reportDate != null && other.reportDate.after(reportDate))) {
+			reportDate = other.reportDate;
+			if (other.engineVersion != null) {
+				engineVersion = other.engineVersion;
+			}
+		} else if (engineVersion == null) {
+			engineVersion = other.engineVersion;
+		}
+		reportSchemaResolved |= other.reportSchemaResolved;
+		engineVersionResolved |= other.engineVersionResolved;
+		reportDateResolved |= other.reportDateResolved;
+	}
+
+	boolean isComplete() {
+		return reportSchemaResolved && engineVersionResolved && reportDateResolved;
+	}
+
+	void applyTo(final ScanBuilder scanBuilder) {
+		if (reportSchema != null) {
+			scanBuilder.setHostName(reportSchema);
+		}
+		if (engineVersion != null) {
+			scanBuilder.setEngineVersion(engineVersion);
+		}
+		if (reportDate != null) {
+			scanBuilder.setScanDate(reportDate);
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.fortify.plugin.api.ScanData;
+import com.fortify.plugin.api.ScanEntry;
+import io.airlift.compress.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <P>Opens the report entry of a scan and decompresses it on the fly.
+ * <BR>JSON and XML reports are accepted, plain as well as gzip (<code>.gz</code>) and zstd (<code>.zst</code>)
+ * compressed. Compression and format are recognized from the first bytes of the content, so it does not matter
+ * which extension the entry has. The header pass always streams the content; the findings pass loads it through
+ * {@link ReportContent}.
+ * <BR>Report entries are the <code>dependency-check-report.*</code> files of the scan. Only if there is none, any
+ * JSON entry is taken, as before XML support. Dependency-Check writes the same findings as JSON and as XML with
+ * <code>--format ALL</code>, so an XML report next to a JSON report in the same directory is left out.
+ */
+final class ReportInput {
+
+	private static final int INPUT_BUFFER_SIZE = 64 * 1024;
+	private static final int INFLATER_BUFFER_SIZE = 64 * 1024;
+
+	private static final String REPORT_NAME = "dependency-check-report";
+	private static final String[] JSON_EXTENSIONS = { ".json", ".json.gz", ".json.gzip", ".json.zst", ".json.zstd" };
+	private static final String[] XML_EXTENSIONS = { ".xml", ".xml.gz", ".xml.gzip", ".xml.zst", ".xml.zstd" };
+
+	/**
+	 * Matches scan entries that can contain a report.
+	 */
+	static final Predicate<String> REPORT_ENTRY = ReportInput::isReportEntry;
+
+	private ReportInput() {
+	}
+
+	/**
+	 * @return true for a JSON entry or a Dependency-Check report entry
+	 */
+	static boolean isReportEntry(final String entryName) {
+		return isJson(entryName) || isNamedReport(entryName);
+	}
+
+	/**
+	 * @return all report entries of the scan in name order, empty if the scan data does not list its entries
+	 */
+	static List<ScanEntry> reportEntries(final ScanData scanData) {
+		final List<ScanEntry> entries = scanData.getScanEntries();
+		if (entries == null) {
+			return Collections.emptyList();
+		}
+		final List<ScanEntry> named = new ArrayList<>();
+		final List<ScanEntry> json = new ArrayList<>();
+		for (final ScanEntry entry : entries) {
+			final String name = entry.getEntryName();
+			if (name == null) {
+				continue;
+			}
+			if (isNamedReport(name)) {
+				named.add(entry);
+			} else if (isJson(name)) {
+				json.add(entry);
+			}
+		}
+		final List<ScanEntry> reports = named.isEmpty() ? json : named;
+		// the XML report of --format ALL repeats the findings of the JSON report next to it
+		final Set<String> jsonDirectories = new HashSet<>();
+		for (final ScanEntry entry : reports) {
+			if (isJson(entry.getEntryName())) {
+				jsonDirectories.add(directory(entry.getEntryName()));
+			}
+		}
+		reports.removeIf(entry -> !isJson(entry.getEntryName())
+				&& jsonDirectories.contains(directory(entry.getEntryName())));
+		reports.sort(Comparator.comparing(ScanEntry::getEntryName));
+		return reports;
+	}
+
+	private static boolean isJson(final String entryName) {
+		return endsWith(entryName.toLowerCase(Locale.ROOT), JSON_EXTENSIONS);
+	}
+
+	// dependency-check-report.json or .xml, possibly compressed, in any directory
+	private static boolean isNamedReport(final String entryName) {
+		final String name = entryName.toLowerCase(Locale.ROOT);
+		final int slash = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'));
+		return name.startsWith(REPORT_NAME, slash + 1)
+				&& (endsWith(name, JSON_EXTENSIONS) || endsWith(name, XML_EXTENSIONS));
+	}
+
+	private static boolean endsWith(final String name, final String[] extensions) {
+		for (final String extension : extensions) {
+			if (name.endsWith(extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String directory(final String entryName) {
+		final int slash = Math.max(entryName.lastIndexOf('/'), entryName.lastIndexOf('\\'));
+		return slash < 0 ? "" : entryName.substring(0, slash);
+	}
+
+	/**
+	 * @param entry report entry, null for the first entry matching {@link #REPORT_ENTRY}
+	 * @return decompressed content of the report entry, supports mark/reset for format detection
+	 */
+	static BufferedInputStream open(final ScanData scanData, final ScanEntry entry) throws IOException {
+		return decode(raw(scanData, entry));
+	}
+
+	/**
+	 * Open the report entry for a full pass over the report, see {@link ReportContent}.
+	 *
+	 * @param entry report entry, null for the first entry matching {@link #REPORT_ENTRY}
+	 * @param copy true to copy content that cannot be mapped in place into an array or a temporary file
+	 */
+	static ReportContent load(final ScanData scanData, final ScanEntry entry, final long mapThreshold,
+			final boolean copy) throws IOException {
+		final InputStream raw = raw(scanData, entry);
+		try {
+			if (raw instanceof FileInputStream) {
+				final ReportContent mapped = ReportContent.map((FileInputStream) raw, mapThreshold);
+				if (mapped != null) {
+					return mapped;
+				}
+			}
+			final BufferedInputStream in = decode(raw);
+			return copy ? ReportContent.copy(in, mapThreshold) : ReportContent.stream(in);
+		} catch (IOException | RuntimeException e) {
+			raw.close();
+			throw e;
+		}
+	}
+
+	private static InputStream raw(final ScanData scanData, final ScanEntry entry) throws IOException {
+		return entry != null ? scanData.getInputStream(entry) : scanData.getInputStream(REPORT_ENTRY);
+	}
+
+	/**
+	 * Wrap the raw entry content into a decompressing stream if it starts with gzip or zstd magic bytes.
+	 */
+	static BufferedInputStream decode(final InputStream raw) throws IOException {
+		final BufferedInputStream in = new BufferedInputStream(raw, INPUT_BUFFER_SIZE);
+		try {
+			switch (Compression.detect(in)) {
+			case GZIP:
+				return new BufferedInputStream(new GZIPInputStream(in, INFLATER_BUFFER_SIZE), INFLATER_BUFFER_SIZE);
+			case ZSTD:
+				return new BufferedInputStream(new ZstdInputStream(in), INFLATER_BUFFER_SIZE);
+			default:
+				return in;
+			}
+		} catch (IOException | RuntimeException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	enum Format {
+		JSON, XML;
+
+		private static final int SNIFF_LENGTH = 256;
+
+		/**
+		 * Look at the first significant character of the decompressed content, the stream position is not changed.
+		 * Content starting with <code>&lt;</code> is XML, anything else is parsed as JSON.
+		 *
+		 * @param in stream supporting mark/reset
+		 */
+		static Format detect(final InputStream in) throws IOException {
+			in.mark(SNIFF_LENGTH);
+			try {
+				for (int i = 0; i < SNIFF_LENGTH; i++) {
+					final int b = in.read();
+					switch (b) {
+					case -1:
+						return JSON;
+					case '<':
+						return XML;
+					case ' ':
+					case '\t':
+					case '\r':
+					case '\n':
+					case 0xef: // UTF-8 byte order mark
+					case 0xbb:
+					case 0xbf:
+						continue;
+					default:
+						return JSON;
+					}
+				}
+				return JSON;
+			} finally {
+				in.reset();
+			}
+		}
+	}
+
+	enum Compression {
+		NONE, GZIP, ZSTD;
+
+		private static final int MAGIC_LENGTH = 4;
+
+		/**
+		 * Peek at the first bytes of the stream, the stream position is not changed.
+		 *
+		 * @param in stream supporting mark/reset
+		 */
+		static Compression detect(final InputStream in) throws IOException {
+			final byte[] magic = new byte[MAGIC_LENGTH];
+			in.mark(MAGIC_LENGTH);
+			int read = 0;
+			int n;
+			while (read < MAGIC_LENGTH && (n = in.read(magic, read, MAGIC_LENGTH - read)) > 0) {
+				read += n;
+			}
+			in.reset();
+			if (read >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+				return GZIP;
+			}
+			if (read >= 4 && (magic[0] & 0xff) == 0x28 && (magic[1] & 0xff) == 0xb5 && (magic[2] & 0xff) == 0x2f
+					&& (magic[3] & 0xff) == 0xfd) {
+				return ZSTD;
+			}
+			return NONE;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * <P>Field layout of the vulnerabilities in a JSON report, selected from <code>reportSchema</code> and
+ * <code>scanInfo.engineVersion</code> as they are read ahead of the <code>dependencies</code> array.
+ * <BR>A known schema is parsed against the fields of that schema only, which shortens the field lookup for every
+ * field of every vulnerability. Unknown schemas, and reports whose header follows the dependencies, use the
+ * generic layout that accepts the fields of all schemas.
+ * <BR>System property <code>depchk.schema.generic=true</code> always uses the generic layout.
+ */
+enum ReportLayout {
+	/**
+	 * Any schema, fields of all schemas are accepted.
+	 */
+	GENERIC(VulnAttribute.Context.VULNERABILITY),
+	/**
+	 * Schema 1.0 (Dependency-Check 2.x and 3.x): flat CVSS v2 fields and a single <code>cwe</code>.
+	 */
+	SCHEMA_1_0(VulnAttribute.Context.VULNERABILITY_1_0),
+	/**
+	 * Schema 1.1 (Dependency-Check 4.x and later): <code>cvssv2</code> and <code>cvssv3</code> objects and a
+	 * <code>cwes</code> array.
+	 */
+	SCHEMA_1_1(VulnAttribute.Context.VULNERABILITY_1_1);
+
+	private static final int FIRST_SCHEMA_1_1_ENGINE = 4;
+
+	private final VulnAttribute.Context vulnerabilityFields;
+
+	ReportLayout(final VulnAttribute.Context vulnerabilityFields) {
+		this.vulnerabilityFields = vulnerabilityFields;
+	}
+
+	/**
+	 * @return field table of a vulnerability object
+	 */
+	VulnAttribute.Context vulnerabilityFields() {
+		return vulnerabilityFields;
+	}
+
+	/**
+	 * @param reportSchema <code>reportSchema</code> of the report, may be null
+	 * @param engineVersion <code>scanInfo.engineVersion</code> of the report, only used without a schema, may be null
+	 * @return layout for the report
+	 */
+	static ReportLayout select(final String reportSchema, final String engineVersion) {
+		if (reportSchema != null) {
+			switch (reportSchema.trim()) {
+			case "1.0":
+				return SCHEMA_1_0;
+			case "1.1":
+				return SCHEMA_1_1;
+			default:
+				return GENERIC;
+			}
+		}
+		final int major = majorVersion(engineVersion);
+		if (major < 2) {
+			return GENERIC;
+		}
+		return major < FIRST_SCHEMA_1_1_ENGINE ? SCHEMA_1_0 : SCHEMA_1_1;
+	}
+
+	/**
+	 * @return leading number of the version, -1 if there is none
+	 */
+	private static int majorVersion(final String version) {
+		if (version == null) {
+			return -1;
+		}
+		int major = -1;
+		for (int i = 0; i < version.length() && i < 9; i++) {
+			final char c = version.charAt(i);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			major = (major < 0 ? 0 : major * 10) + (c - '0');
+		}
+		return major;
+	}
+}
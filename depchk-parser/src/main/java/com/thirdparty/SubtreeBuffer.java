@@ -0,0 +1,135 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * <P>Holds one captured JSON subtree so that it can be parsed again later, e.g. the <code>vulnerabilities</code> of
+ * a dependency whose identifying fields come after them.
+ * <BR>The subtree is kept as JSON in memory up to <code>depchk.reorder.maxMemoryBytes</code> (system property,
+ * default 1 MB) and spilled to a temporary file beyond that. The buffer is reused for every capture; the memory is
+ * only allocated on the first one.
+ */
+final class SubtreeBuffer implements Closeable {
+
+	private static final int MAX_MEMORY_BYTES = Math.max(0,
+			Integer.getInteger("depchk.reorder.maxMemoryBytes", 1024 * 1024));
+
+	private final JsonFactory jsonFactory;
+	private Memory memory;
+	private Path spillFile;
+	private OutputStream spill;
+
+	SubtreeBuffer(final JsonFactory jsonFactory) {
+		this.jsonFactory = jsonFactory;
+	}
+
+	/**
+	 * Copy the structure the parser is positioned at, replacing the previous capture. The parser is left at the end
+	 * of the structure.
+	 */
+	void capture(final JsonParser jsonParser) throws IOException {
+		reset();
+		if (memory == null) {
+			memory = new Memory();
+		}
+		try (final JsonGenerator generator = jsonFactory.createGenerator(new SpillingOutput())) {
+			generator.copyCurrentStructure(jsonParser);
+		}
+		if (spill != null) {
+			spill.close();
+			spill = null;
+		}
+	}
+
+	/**
+	 * @return new parser over the captured structure, not yet positioned at its first token
+	 */
+	JsonParser replay() throws IOException {
+		if (spillFile != null) {
+			return jsonFactory.createParser(new BufferedInputStream(Files.newInputStream(spillFile)));
+		}
+		return jsonFactory.createParser(memory.stream());
+	}
+
+
+	private void reset() throws IOException {
+		if (memory != null) {
+			memory.reset();
+		}
+		close();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (spill != null) {
+				spill.close();
+				spill = null;
+			}
+		} finally {
+			if (spillFile != null) {
+				Files.deleteIfExists(spillFile);
+				spillFile = null;
+			}
+		}
+	}
+
+	/**
+	 * Memory part of the buffer, read back without copying.
+	 */
+	private static final class Memory extends ByteArrayOutputStream {
+		ByteArrayInputStream stream() {
+			return new ByteArrayInputStream(buf, 0, count);
+		}
+	}
+
+	/**
+	 * Writes to memory until the limit is reached, then moves the content to the spill file and continues there.
+	 */
+	private final class SpillingOutput extends OutputStream {
+		@Override
+		public void write(final int b) throws IOException {
+			target(1).write(b);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			target(len).write(b, off, len);
+		}
+
+		private OutputStream target(final int length) throws IOException {
+			if (spill == null && memory.size() + length > MAX_MEMORY_BYTES) {
+				spillFile = Files.createTempFile("depchk-subtree-", ".spool");
+				spill = Files.newOutputStream(spillFile);
+				memory.writeTo(spill);
+				memory.reset();
+			}
+			return spill != null ? spill : memory;
+		}
+	}
+}
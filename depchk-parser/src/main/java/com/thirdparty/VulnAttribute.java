@@ -15,10 +15,6 @@ package com.thirdparty;
  */
 
 
-import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * <P>All attributes used by parser should be defined in this class.
  * <BR>We don't define attribute types here because we don't want this class to be dependent on plugin-api.
@@ -32,6 +28,8 @@ enum VulnAttribute {
     SCANDATE("reportDate"),
     REPORTSCHEMA("reportSchema"),
     SCANINFO("scanInfo"),
+    PROJECT_INFO("projectInfo"),
+    DEPENDENCIES("dependencies"),
     
     // Dependency Level Attributes:
     FILE_NAME("fileName"),
@@ -39,6 +37,15 @@ enum VulnAttribute {
     SHA1("sha1"),
     DESCRIPTION("description"),
     LICENSE("license"),
+    // written by Dependency-Check after the identifying fields, not read
+    PROJECT_REFERENCES("projectReferences"),
+    INCLUDED_BY("includedBy"),
+    RELATED_DEPENDENCIES("relatedDependencies"),
+    EVIDENCE_COLLECTED("evidenceCollected"),
+    PACKAGES("packages"),
+    IDENTIFIERS("identifiers"),
+    VULNERABILITY_IDS("vulnerabilityIds"),
+    SUPPRESSED_VULNERABILITY_IDS("suppressedVulnerabilityIds"),
 
     // Dependency Check attribute names:
     NAME("name"),
@@ -46,6 +53,7 @@ enum VulnAttribute {
     
     // Vulnerability attribute names:
     VULNERABILITIES("vulnerabilities"),
+    SUPPRESSED_VULNERABILITIES("suppressedVulnerabilities"),
     UNIQUE_ID("uniqueId"),
     VUL_NAME("name"),
     CVSS_SCORE("cvssScore"),
@@ -54,19 +62,44 @@ enum VulnAttribute {
     CVSS_CON_IMPACT("cvssConfidentialImpact"),
     CVSS_INT_IMPACT("cvssIntegrityImpact"),
     CVSS_AVAIL_IMPACT("cvssAvailabilityImpact"),
+    CVSS_AUTHENTICATION("cvssAuthenticationr"),
     SEVERITY("severity"),
     CWE("cwe"),
-    CWE_DESCRIPTION("description")
+    CWES("cwes"),
+    CWE_NAME("cweName"),
+    CWE_DESCRIPTION("description"),
+    CVSS_V2("cvssv2"),
+    CVSS_V3("cvssv3"),
+    LAST_CHANGE_DATE("lastChangeDate"),
+    LAST_MODIFIED_DATE("lastModifiedDate"),
+    ARTIFACT_BUILD_DATE("artifactBuildDate"),
+    // written only, the findings of an aggregated vulnerability
+    VULNERABILITY_LIST("vulnerabilityList"),
+
+    // CVSS v2 object attribute names (report schema 1.1):
+    V2_SCORE("score"),
+    V2_ACCESS_VECTOR("accessVector"),
+    V2_ACCESS_COMPLEXITY("accessComplexity"),
+    V2_AUTHENTICATION("authenticationr"),
+    V2_CON_IMPACT("confidentialImpact"),
+    V2_INT_IMPACT("integrityImpact"),
+    V2_AVAIL_IMPACT("availabilityImpact"),
+    V2_SEVERITY("severity"),
+
+    // CVSS v3 object attribute names (report schema 1.1):
+    V3_SCORE("baseScore"),
+    V3_ATTACK_VECTOR("attackVector"),
+    V3_ATTACK_COMPLEXITY("attackComplexity"),
+    V3_PRIVILEGES_REQUIRED("privilegesRequired"),
+    V3_USER_INTERACTION("userInteraction"),
+    V3_SCOPE("scope"),
+    V3_CON_IMPACT("confidentialityImpact"),
+    V3_INT_IMPACT("integrityImpact"),
+    V3_AVAIL_IMPACT("availabilityImpact"),
+    V3_SEVERITY("baseSeverity")
    ;
 
     private final String attrName;
-    private static final Map<String, VulnAttribute> lookup =
-            new HashMap<>();
-
-    static {
-        for(VulnAttribute s : EnumSet.allOf(VulnAttribute.class))
-            lookup.put(s.attrName(), s);
-    }
 
     VulnAttribute(final String attrName) {
         this.attrName = attrName;
@@ -76,11 +109,64 @@ enum VulnAttribute {
         return attrName;
     }
 
-    public static VulnAttribute get(String attrName) {
-        try {
-            return lookup.get(attrName);
-        } catch (Exception e) {
+    /**
+     * <P>Field name symbol tables, one per nesting level of the report.
+     * <BR>Names used on several levels (<code>name</code>, <code>description</code>) resolve to the attribute of
+     * the level being parsed. Lookup compares references against the interned names: the parser factory interns
+     * canonicalized field names, so no hashing or character comparison is done per field.
+     */
+    enum Context {
+        TOP_LEVEL(REPORTSCHEMA, SCANINFO, VulnAttribute.PROJECT_INFO, SCANDATE, DEPENDENCIES),
+        SCAN_INFO(ENGINE_VERSION),
+        PROJECT_INFO(PROJECT_NAME, SCANDATE),
+        DEPENDENCY(FILE_NAME, FILE_PATH, SHA1, DESCRIPTION, LICENSE, PROJECT_REFERENCES, INCLUDED_BY,
+                RELATED_DEPENDENCIES, EVIDENCE_COLLECTED, PACKAGES, IDENTIFIERS, VULNERABILITY_IDS,
+                SUPPRESSED_VULNERABILITY_IDS, VULNERABILITIES, SUPPRESSED_VULNERABILITIES),
+        VULNERABILITY(VUL_NAME, CVSS_SCORE, CVSS_ACCESS_VECTOR, CVSS_ACCESS_COMPLEXITY, CVSS_CON_IMPACT,
+                CVSS_INT_IMPACT, CVSS_AVAIL_IMPACT, CVSS_AUTHENTICATION, SEVERITY, CWE, CWES, CWE_DESCRIPTION,
+                VulnAttribute.CVSS_V2, VulnAttribute.CVSS_V3, LAST_CHANGE_DATE, LAST_MODIFIED_DATE,
+                ARTIFACT_BUILD_DATE),
+        // vulnerability fields of a single report schema, in the order Dependency-Check writes them, followed by
+        // the optional dates
+        VULNERABILITY_1_0(VUL_NAME, CVSS_SCORE, CVSS_ACCESS_VECTOR, CVSS_ACCESS_COMPLEXITY, CVSS_AUTHENTICATION,
+                CVSS_CON_IMPACT, CVSS_INT_IMPACT, CVSS_AVAIL_IMPACT, SEVERITY, CWE, CWE_DESCRIPTION,
+                LAST_CHANGE_DATE, LAST_MODIFIED_DATE, ARTIFACT_BUILD_DATE),
+        VULNERABILITY_1_1(VUL_NAME, SEVERITY, VulnAttribute.CVSS_V2, VulnAttribute.CVSS_V3, CWES, CWE_DESCRIPTION,
+                LAST_CHANGE_DATE, LAST_MODIFIED_DATE, ARTIFACT_BUILD_DATE),
+        CVSS_V2(V2_SCORE, V2_ACCESS_VECTOR, V2_ACCESS_COMPLEXITY, V2_AUTHENTICATION, V2_CON_IMPACT, V2_INT_IMPACT,
+                V2_AVAIL_IMPACT, V2_SEVERITY),
+        CVSS_V3(V3_SCORE, V3_ATTACK_VECTOR, V3_ATTACK_COMPLEXITY, V3_PRIVILEGES_REQUIRED, V3_USER_INTERACTION,
+                V3_SCOPE, V3_CON_IMPACT, V3_INT_IMPACT, V3_AVAIL_IMPACT, V3_SEVERITY);
+
+        private final String[] names;
+        private final VulnAttribute[] attributes;
+
+        Context(final VulnAttribute... attributes) {
+            this.attributes = attributes;
+            this.names = new String[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                names[i] = attributes[i].attrName().intern();
+            }
+        }
+
+        /**
+         * @return attributes of this level, the array must not be modified
+         */
+        VulnAttribute[] attributes() {
+            return attributes;
+        }
+
+        /**
+         * @param canonicalName interned field name as returned by the parser
+         * @return attribute of the field on this level or null if the field is not used
+         */
+        public VulnAttribute get(final String canonicalName) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i] == canonicalName) {
+                    return attributes[i];
+                }
+            }
             return null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,383 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.fortify.plugin.api.BasicVulnerabilityBuilder;
+import com.fortify.plugin.api.StaticVulnerabilityBuilder;
+import com.fortify.plugin.api.VulnerabilityHandler;
+import com.thirdparty.scan.CvssCalculator;
+import com.thirdparty.scan.DepVuln;
+import com.thirdparty.scan.Dependency;
+import com.thirdparty.scan.SeverityMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.thirdparty.CustomVulnAttribute.*;
+
+/**
+ * <P>Turns parsed dependency and vulnerability records into SSC vulnerabilities.
+ * <BR>Shared by all report formats, so that JSON and XML reports are mapped the same way. One emitter is created
+ * per parse; it is not thread-safe, just like the {@link VulnerabilityHandler} it feeds.
+ * <BR>As a {@link FindingSink} it reuses one record for all vulnerabilities and emits each right away.
+ * <BR>With an {@link Aggregation} other than {@link Aggregation#NONE}, the findings of the current dependency are
+ * held instead, each in a new record, and emitted as one vulnerability per group once the next dependency starts
+ * or {@link #flush()} is called. All readers pass the findings of one dependency one after another, so no more than
+ * one dependency is held at a time. Instance ids are then only resolved per group; a finding repeated within the
+ * held dependency is dropped by its name.
+ */
+final class VulnerabilityEmitter implements FindingSink {
+	private static final Logger LOG = LoggerFactory.getLogger(VulnerabilityEmitter.class);
+
+	// highest impact first, then highest priority; findings without either last
+	private static final Comparator<DepVuln> BY_SEVERITY = Comparator
+			.comparing(DepVuln::getImpact, Comparator.nullsLast(Comparator.<Float> reverseOrder()))
+			.thenComparing(DepVuln::getPriority, Comparator.nullsLast(Comparator.<DepVuln.GenPriority> naturalOrder()));
+
+	/**
+	 * How findings are combined into SSC vulnerabilities, set with system property <code>depchk.aggregate</code>
+	 * (<code>none</code>, <code>dependency</code> or <code>cwe</code>).
+	 */
+	enum Aggregation {
+		/** One vulnerability per CVE of a dependency. */
+		NONE,
+		/** One vulnerability per dependency. */
+		DEPENDENCY,
+		/** One vulnerability per dependency and CWE. */
+		CWE;
+
+		static Aggregation fromSystemProperty() {
+			final String value = System.getProperty("depchk.aggregate", "none");
+			try {
+				return valueOf(value.trim().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				LOG.warn("Ignoring unknown depchk.aggregate: " + value);
+				return NONE;
+			}
+		}
+	}
+
+	private final VulnerabilityHandler vh;
+	private final ParseMetrics metrics;
+	private final FindingFilter filter;
+	private final Aggregation aggregation;
+	private final DepVuln record = new DepVuln();
+	private final InstanceIdRegistry instanceIds = new InstanceIdRegistry();
+	// findings of the dependency being aggregated by group key, the CWE or "" for all
+	private final Map<String, List<DepVuln>> groups = new LinkedHashMap<>();
+	// names of the findings held, to drop repeated ones
+	private final Set<String> groupedNames = new HashSet<>();
+	private Dependency grouped;
+
+	VulnerabilityEmitter(final VulnerabilityHandler vh, final ParseMetrics metrics, final FindingFilter filter,
+			final Aggregation aggregation) {
+		this.vh = vh;
+		this.metrics = metrics;
+		this.filter = filter;
+		this.aggregation = aggregation;
+	}
+
+	@Override
+	public DepVuln nextRecord() {
+		if (aggregation != Aggregation.NONE) {
+			return new DepVuln();
+		}
+		record.clear();
+		return record;
+	}
+
+	@Override
+	public void accept(final Dependency dependency, final DepVuln fn) {
+		emit(dependency, fn);
+	}
+
+	/**
+	 * Emit one vulnerability of the dependency. Vulnerabilities without a name are ignored, those rejected by the
+	 * {@link FindingFilter} are counted and dropped, repeated instance ids are resolved by {@link InstanceIdRegistry}.
+	 */
+	void emit(final Dependency dependency, final DepVuln fn) {
+		final boolean consistent = normalize(fn);
+		if (fn.getName() == null) {
+			return;
+		}
+		if (!filter.accepts(dependency, fn)) {
+			metrics.filtered++;
+			return;
+		}
+		if (aggregation != Aggregation.NONE) {
+			// the instance id is resolved per group, see emitGroup
+			if (collect(dependency, fn) && !consistent) {
+				metrics.scoreMismatches++;
+			}
+			return;
+		}
+		final String instanceId = instanceIds.resolve(fn.getInstanceId(dependency), dependency);
+		if (instanceId == null) {
+			metrics.duplicates++;
+			return;
+		}
+		if (!consistent) {
+			metrics.scoreMismatches++;
+		}
+		final StaticVulnerabilityBuilder vb = vh.startStaticVulnerability(instanceId); // Start new vulnerability
+																						// building
+		populateVulnerability(vb, dependency, fn);
+		vb.completeVulnerability(); // Complete vulnerability building
+		if (metrics.countVulnerability()) {
+			metrics.trace("Vulnerability %s", instanceId);
+		}
+	}
+
+	/**
+	 * Emit the findings still held for aggregation. Called after the last finding of a parse.
+	 */
+	void flush() {
+		for (final Map.Entry<String, List<DepVuln>> group : groups.entrySet()) {
+			emitGroup(group.getKey(), group.getValue());
+		}
+		groups.clear();
+		groupedNames.clear();
+		grouped = null;
+	}
+
+	/**
+	 * @return false if the finding repeats one held for the same dependency
+	 */
+	private boolean collect(final Dependency dependency, final DepVuln fn) {
+		if (grouped == null || !sameDependency(grouped, dependency)) {
+			flush();
+			grouped = dependency.copy();
+		} else {
+			// the description may follow the first vulnerabilities
+			grouped.setDescription(dependency.getDescription());
+		}
+		if (!groupedNames.add(fn.getName())) {
+			metrics.duplicates++;
+			return false;
+		}
+		final String key = aggregation == Aggregation.CWE ? cweKey(fn.getCWE()) : "";
+		List<DepVuln> group = groups.get(key);
+		if (group == null) {
+			group = new ArrayList<>();
+			groups.put(key, group);
+		}
+		group.add(fn);
+		return true;
+	}
+
+	/**
+	 * @param cwe CWE in the canonical form, <code>CWE ID 502</code>
+	 * @return <code>CWE-502</code>, "" without a CWE
+	 */
+	private static String cweKey(final String cwe) {
+		if (cwe == null) {
+			return "";
+		}
+		int digits = cwe.length();
+		while (digits > 0 && Character.isDigit(cwe.charAt(digits - 1))) {
+			digits--;
+		}
+		return digits < cwe.length() ? "CWE-" + cwe.substring(digits) : cwe;
+	}
+
+	/**
+	 * Emit one vulnerability for a group of findings. Impact and priority are the highest of the group, all other
+	 * vulnerability fields are taken from its most severe finding. Every finding is listed in
+	 * {@link CustomVulnAttribute#VULNERABILITY_LIST}, one line each, most severe first.
+	 */
+	private void emitGroup(final String key, final List<DepVuln> findings) {
+		// a dependency without a sha1, e.g. a virtual one, is grouped as "null" like its per-CVE ids
+		final String groupId = aggregation == Aggregation.CWE
+				? grouped.getUniqueId() + '-' + (key.isEmpty() ? "unknown" : key)
+				: String.valueOf(grouped.getUniqueId());
+		final String instanceId = instanceIds.resolve(groupId, grouped);
+		if (instanceId == null) {
+			metrics.duplicates += findings.size();
+			return;
+		}
+		findings.sort(BY_SEVERITY);
+		final DepVuln top = findings.get(0);
+		DepVuln.GenPriority priority = top.getPriority();
+		Date lastChangeDate = top.getLastChangeDate();
+		final StringBuilder list = new StringBuilder();
+		for (final DepVuln fn : findings) {
+			if (fn.getPriority() != null && (priority == null || fn.getPriority().compareTo(priority) < 0)) {
+				priority = fn.getPriority();
+			}
+			if (fn.getLastChangeDate() != null
+					&& (lastChangeDate == null || fn.getLastChangeDate().after(lastChangeDate))) {
+				lastChangeDate = fn.getLastChangeDate();
+			}
+			appendSummary(list, fn);
+		}
+		top.setPriority(priority);
+		top.setLastChangeDate(lastChangeDate);
+
+		final StaticVulnerabilityBuilder vb = vh.startStaticVulnerability(instanceId);
+		populateVulnerability(vb, grouped, top);
+		vb.setStringCustomAttributeValue(VULNERABILITY_LIST, list.toString());
+		vb.completeVulnerability();
+		metrics.aggregatedFindings += findings.size();
+		if (metrics.countVulnerability()) {
+			metrics.trace("Vulnerability %s, %d findings", instanceId, findings.size());
+		}
+	}
+
+	// name, CVSS v3 and v2 score, priority and CWE, "-" for missing values
+	private static void appendSummary(final StringBuilder list, final DepVuln fn) {
+		if (list.length() > 0) {
+			list.append('\n');
+		}
+		list.append(fn.getName()).append(' ');
+		list.append(Float.isNaN(fn.getCvssV3Score()) ? "-" : String.valueOf(fn.getCvssV3Score())).append('/');
+		list.append(Float.isNaN(fn.getCvssV2Score()) ? "-" : String.valueOf(fn.getCvssV2Score())).append(' ');
+		list.append(fn.getPriority() != null ? fn.getPriority().name() : "-").append(' ');
+		list.append(fn.getCWE() != null ? fn.getCWE() : "-");
+	}
+
+	// the fields vulnerabilities are identified and located by, the description may follow the first of them
+	private static boolean sameDependency(final Dependency a, final Dependency b) {
+		return Objects.equals(a.getUniqueId(), b.getUniqueId()) && Objects.equals(a.getFileName(), b.getFileName())
+				&& Objects.equals(a.getFilePath(), b.getFilePath());
+	}
+
+	/**
+	 * Impact and priority come from the CVSS v3 base score if present, otherwise from the v2 score. The severity
+	 * given in the report is only used when there is no score. A missing score is computed from the vector
+	 * components, see {@link CvssCalculator}. A record is normalized once, usually on a worker thread; later calls,
+	 * such as the one in {@link #emit}, only return the result.
+	 *
+	 * @return false if a reported score does not match the score computed from its vector
+	 */
+	static boolean normalize(final DepVuln fn) {
+		if (fn.isNormalized()) {
+			return !fn.isScoreMismatch();
+		}
+		final boolean consistent = applyComputedScores(fn);
+		if (!Float.isNaN(fn.getCvssV3Score())) {
+			fn.setImpact(fn.getCvssV3Score());
+			fn.setPriority(SeverityMapper.fromCvss3Score(fn.getCvssV3Score()));
+		} else if (!Float.isNaN(fn.getCvssV2Score())) {
+			fn.setImpact(fn.getCvssV2Score());
+			fn.setPriority(SeverityMapper.fromCvss2Score(fn.getCvssV2Score()));
+		}
+		fn.markNormalized(!consistent);
+		return consistent;
+	}
+
+	private static boolean applyComputedScores(final DepVuln fn) {
+		boolean consistent = true;
+		final float v3 = CvssCalculator.baseScore(CvssCalculator.v3Key(fn));
+		if (!Float.isNaN(v3)) {
+			if (Float.isNaN(fn.getCvssV3Score())) {
+				fn.setCvssV3Score(v3);
+			} else {
+				consistent = CvssCalculator.sameScore(fn.getCvssV3Score(), v3);
+			}
+		}
+		final float v2 = CvssCalculator.baseScore(CvssCalculator.v2Key(fn));
+		if (!Float.isNaN(v2)) {
+			if (Float.isNaN(fn.getCvssV2Score())) {
+				fn.setCvssV2Score(v2);
+			} else {
+				consistent &= CvssCalculator.sameScore(fn.getCvssV2Score(), v2);
+			}
+		}
+		return consistent;
+	}
+
+	private static void populateVulnerability(final StaticVulnerabilityBuilder vb, final Dependency dependency,
+			final DepVuln fn) {
+
+		// Set builtin attributes
+		vb.setKingdom("Environment");
+		// vb.setMappedCategory()
+		vb.setAnalyzer("Configuration");
+		vb.setCategory("Insecure Deployment");
+		vb.setSubCategory("Unpatched Application");
+		if (fn.getCWE() != null) {
+			vb.setMappedCategory(fn.getCWE());
+			vb.setStringCustomAttributeValue(CWE, fn.getCWE());
+		}
+		if (fn.getCweName() != null) {
+			vb.setStringCustomAttributeValue(CWE_NAME, fn.getCweName());
+		}
+		//vb.setCategory(fn.getName()); // REST -> issueName
+		// REST -> fullFileName or shortFileName
+		vb.setFileName(dependency.getFilePath() != null ? dependency.getFilePath() : dependency.getFileName());
+		vb.setVulnerabilityAbstract(fn.getVulnerabilityAbstract()); // REST -> brief
+		vb.setImpact(fn.getImpact()); // REST -> impact
+
+		if (fn.getPriority() != null) {
+			try {
+				vb.setPriority(BasicVulnerabilityBuilder.Priority.valueOf(fn.getPriority().name()));
+				// REST -> friority, UI
+			} catch (IllegalArgumentException e) { // Leave priority unset if the value from scan is unknown
+				// Do Nothing.
+			}
+		}
+
+		// Set string custom attributes
+		if (dependency.getUniqueId() != null) {
+			vb.setStringCustomAttributeValue(UNIQUE_ID, dependency.getUniqueId());
+		}
+		if (dependency.getFileName() != null) {
+			vb.setStringCustomAttributeValue(FILE_NAME, dependency.getFileName());
+		}
+
+		if (fn.getcvssAccessComplexity() != null) {
+			vb.setStringCustomAttributeValue(CVSS_ACCESS_COMPLEXITY, fn.getcvssAccessComplexity());
+		}
+		if (fn.getcvssAccessVector() != null) {
+			vb.setStringCustomAttributeValue(CVSS_ACCESS_VECTOR, fn.getcvssAccessVector());
+		}
+		if (fn.getcvssAvailabilityImpact() != null) {
+			vb.setStringCustomAttributeValue(CVSS_AVAIL_IMPACT, fn.getcvssAvailabilityImpact());
+		}
+		if (fn.getcvssConfidentialImpact() != null) {
+			vb.setStringCustomAttributeValue(CVSS_CON_IMPACT, fn.getcvssConfidentialImpact());
+		}
+
+		if (fn.getcvssIntegrityImpact() != null) {
+			vb.setStringCustomAttributeValue(CVSS_INT_IMPACT, fn.getcvssIntegrityImpact());
+		}
+
+		// set date custom attributes
+		if (fn.getLastChangeDate() != null) {
+			vb.setDateCustomAttributeValue(LAST_CHANGE_DATE, fn.getLastChangeDate());
+		}
+		if (fn.getArtifactBuildDate() != null) {
+			vb.setDateCustomAttributeValue(ARTIFACT_BUILD_DATE, fn.getArtifactBuildDate());
+		}
+
+		// set long string custom attributes
+		if (dependency.getFilePath() != null) {
+			vb.setStringCustomAttributeValue(FILE_PATH, dependency.getFilePath());
+		}
+		if (dependency.getDescription() != null) {
+			vb.setStringCustomAttributeValue(DESCRIPTION, dependency.getDescription());
+		}
+
+	}
+}
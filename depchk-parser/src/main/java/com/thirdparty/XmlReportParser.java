@@ -0,0 +1,674 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.fortify.plugin.api.ScanParsingException;
+import com.thirdparty.scan.CvssValue;
+import com.thirdparty.scan.DepVuln;
+import com.thirdparty.scan.DepVuln.GenPriority;
+import com.thirdparty.scan.Dependency;
+import com.thirdparty.scan.SeverityMapper;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.thirdparty.BoundedText.DESCRIPTION_LIMIT;
+import static com.thirdparty.BoundedText.PATH_LIMIT;
+
+/**
+ * <P>Pull parser for the Dependency-Check XML report (<code>dependency-check-report.xml</code>).
+ * <BR>Elements are mapped onto the same {@link VulnAttribute} levels as the JSON report and fill the same
+ * {@link Dependency} and {@link DepVuln} records, so findings reach the {@link FindingSink} exactly like from the
+ * JSON path. Only one
+ * element is held at a time; memory use does not depend on the report size.
+ * <BR>Text is not coalesced, so a long text node arrives in several events and is copied only up to the limit of
+ * its field. DTDs and external entities are not processed.
+ */
+final class XmlReportParser implements AutoCloseable {
+
+	private static final XMLInputFactory XML_INPUT_FACTORY;
+
+	static {
+		XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+	}
+
+	private static final String ROOT_ELEMENT = "analysis";
+	private static final String SCHEMA_PREFIX = "dependency-check.";
+	private static final String SCHEMA_SUFFIX = ".xsd";
+	private static final String VULNERABILITY_ELEMENT = "vulnerability";
+	private static final String SUPPRESSED_VULNERABILITY_ELEMENT = "suppressedVulnerability";
+
+	// element names of the XML report per nesting level, the XML report uses camel case for the CVSS blocks
+	private static final Map<String, VulnAttribute> TOP_LEVEL = elements(VulnAttribute.Context.TOP_LEVEL);
+	private static final Map<String, VulnAttribute> SCAN_INFO = elements(VulnAttribute.Context.SCAN_INFO);
+	private static final Map<String, VulnAttribute> PROJECT_INFO = elements(VulnAttribute.Context.PROJECT_INFO);
+	private static final Map<String, VulnAttribute> DEPENDENCY = elements(VulnAttribute.Context.DEPENDENCY);
+	private static final Map<String, VulnAttribute> VULNERABILITY = elements(VulnAttribute.Context.VULNERABILITY,
+			"cvssV2", VulnAttribute.CVSS_V2, "cvssV3", VulnAttribute.CVSS_V3);
+	private static final Map<String, VulnAttribute> CVSS_V2 = elements(VulnAttribute.Context.CVSS_V2);
+	private static final Map<String, VulnAttribute> CVSS_V3 = elements(VulnAttribute.Context.CVSS_V3);
+
+	private final CountingInputStream content;
+	private final XMLStreamReader reader;
+	private final ParseMetrics metrics;
+	private final List<DepVuln> deferredFindings = new ArrayList<>();
+
+	XmlReportParser(final InputStream content, final ParseMetrics metrics) throws ScanParsingException {
+		this.content = new CountingInputStream(content);
+		try {
+			// StAX does not require factories to be thread safe, and parses of concurrent imports share this one
+			synchronized (XML_INPUT_FACTORY) {
+				this.reader = XML_INPUT_FACTORY.createXMLStreamReader(this.content);
+			}
+		} catch (XMLStreamException e) {
+			throw parsingException(e);
+		}
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Header-only pass. Reading stops as soon as the header is complete; the <code>dependencies</code> element is
+	 * stepped over event by event if it comes first.
+	 */
+	void parseHeader(final ReportHeader header) throws ScanParsingException {
+		try {
+			startRoot();
+			header.setReportSchema(schemaVersion(reader.getNamespaceURI()));
+			while (!header.isComplete() && nextChild()) {
+				final VulnAttribute vulnAttr = TOP_LEVEL.get(reader.getLocalName());
+				if (vulnAttr == null) {
+					skipElement();
+					continue;
+				}
+				switch (vulnAttr) {
+				case SCANINFO:
+					loadScanInfo(header);
+					break;
+				case PROJECT_INFO:
+					loadProjectInfo(header);
+					break;
+				case SCANDATE:
+					header.setReportDate(readReportDate());
+					break;
+				default:
+					skipElement();
+					break;
+				}
+			}
+		} catch (XMLStreamException e) {
+			throw parsingException(e);
+		}
+	}
+
+	/**
+	 * Findings pass, every <code>vulnerability</code> element of every dependency is passed to the sink.
+	 */
+	void parseFindings(final FindingSink sink) throws ScanParsingException {
+		// The dependency record is reused for all dependencies of the report
+		final Dependency dependency = new Dependency();
+		try {
+			startRoot();
+			while (nextChild()) {
+				if (TOP_LEVEL.get(reader.getLocalName()) != VulnAttribute.DEPENDENCIES) {
+					skipElement();
+					continue;
+				}
+				while (nextChild()) {
+					dependency.clear();
+					loadDependency(dependency, sink);
+					if (metrics.countDependency()) {
+						metrics.trace("Parsed dependency %06d/%s, %d vulnerabilities so far", metrics.dependencies,
+								dependency.getUniqueId(), metrics.vulnerabilities);
+					}
+				}
+			}
+		} catch (XMLStreamException e) {
+			throw parsingException(e);
+		}
+	}
+
+	@Override
+	public void close() throws ScanParsingException {
+		try {
+			metrics.bytesRead += content.count;
+			reader.close();
+		} catch (XMLStreamException e) {
+			throw parsingException(e);
+		}
+	}
+
+	private void startRoot() throws XMLStreamException, ScanParsingException {
+		while (reader.hasNext()) {
+			if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+				metrics.tokens++;
+				if (!ROOT_ELEMENT.equals(reader.getLocalName())) {
+					throw new ScanParsingException(String.format(
+							"Not a Dependency-Check XML report, expected root element <%s> but found <%s>",
+							ROOT_ELEMENT, reader.getLocalName()));
+				}
+				return;
+			}
+		}
+		throw new ScanParsingException("Expected root element in XML report");
+	}
+
+	private void loadScanInfo(final ReportHeader header) throws XMLStreamException {
+		String ev = null;
+		while (nextChild()) {
+			if (SCAN_INFO.get(reader.getLocalName()) == VulnAttribute.ENGINE_VERSION) {
+				ev = readText();
+			} else {
+				skipElement();
+			}
+		}
+		header.setEngineVersion(ev);
+	}
+
+	private void loadProjectInfo(final ReportHeader header) throws XMLStreamException, ScanParsingException {
+		while (nextChild()) {
+			if (PROJECT_INFO.get(reader.getLocalName()) == VulnAttribute.SCANDATE) {
+				header.setReportDate(readReportDate());
+			} else {
+				skipElement();
+			}
+		}
+	}
+
+	/**
+	 * Vulnerabilities listed before the identifying fields of the dependency are loaded into separate records and
+	 * passed to the sink once the whole dependency is read.
+	 */
+	private void loadDependency(final Dependency dependency, final FindingSink sink) throws XMLStreamException {
+		deferredFindings.clear();
+		while (nextChild()) {
+			final VulnAttribute vulnAttr = DEPENDENCY.get(reader.getLocalName());
+			if (vulnAttr == null) {
+				skipElement();
+				continue;
+			}
+			switch (vulnAttr) {
+			case VULNERABILITIES:
+				loadVulnerabilities(dependency, sink, false);
+				break;
+			case SUPPRESSED_VULNERABILITIES:
+				// wrapper written when converting the JSON report, Dependency-Check lists them within vulnerabilities
+				loadVulnerabilities(dependency, sink, true);
+				break;
+			case SHA1:
+				dependency.setUniqueId(readText());
+				break;
+			case FILE_NAME:
+				dependency.setFileName(readText(PATH_LIMIT));
+				break;
+			case FILE_PATH:
+				dependency.setFilePath(readText(PATH_LIMIT));
+				break;
+			case DESCRIPTION:
+				dependency.setDescription(readText(DESCRIPTION_LIMIT));
+				break;
+			// elements following the identifying ones, whatever of those is missing is not in the report
+			case LICENSE:
+			case PROJECT_REFERENCES:
+			case INCLUDED_BY:
+			case RELATED_DEPENDENCIES:
+			case EVIDENCE_COLLECTED:
+			case PACKAGES:
+			case IDENTIFIERS:
+			case VULNERABILITY_IDS:
+			case SUPPRESSED_VULNERABILITY_IDS:
+				dependency.markHeaderRead();
+				skipElement();
+				break;
+			default:
+				skipElement();
+				break;
+			}
+		}
+		if (!deferredFindings.isEmpty()) {
+			metrics.reorderedDependencies++;
+		}
+		for (final DepVuln fn : deferredFindings) {
+			sink.accept(dependency, fn);
+		}
+	}
+
+	/**
+	 * Read the <code>vulnerability</code> and <code>suppressedVulnerability</code> elements of the current element,
+	 * deferring them while the dependency is not identified. Suppressed ones are only counted unless configured
+	 * otherwise.
+	 *
+	 * @param suppressedList true if all children are suppressed vulnerabilities
+	 */
+	private void loadVulnerabilities(final Dependency dependency, final FindingSink sink, final boolean suppressedList)
+			throws XMLStreamException {
+		while (nextChild()) {
+			final String element = reader.getLocalName();
+			final boolean suppressed;
+			if (SUPPRESSED_VULNERABILITY_ELEMENT.equals(element)) {
+				suppressed = true;
+			} else if (VULNERABILITY_ELEMENT.equals(element)) {
+				suppressed = suppressedList;
+			} else {
+				skipElement();
+				continue;
+			}
+			if (suppressed && DepChkParserPlugin.FILTER.dropsSuppressed()) {
+				metrics.suppressed++;
+				skipElement();
+				continue;
+			}
+			if (dependency.isIdentified()) {
+				final DepVuln fn = sink.nextRecord();
+				loadFinding(fn);
+				sink.accept(dependency, fn);
+			} else {
+				final DepVuln fn = new DepVuln();
+				loadFinding(fn);
+				deferredFindings.add(fn);
+			}
+		}
+	}
+
+	private void loadFinding(final DepVuln fn) throws XMLStreamException {
+		while (nextChild()) {
+			final VulnAttribute vulnAttr = VULNERABILITY.get(reader.getLocalName());
+			if (vulnAttr == null) {
+				skipElement();
+				continue;
+			}
+			switch (vulnAttr) {
+			case VUL_NAME:
+				fn.setName(readText());
+				break;
+			case CWE:
+				fn.applyCwe(DepChkParserPlugin.CWE_NORMALIZER.normalize(readText()));
+				break;
+			case CWES:
+				// the first listed CWE is used
+				while (nextChild()) {
+					final String cwe = readText();
+					if (fn.getCWE() == null) {
+						fn.applyCwe(DepChkParserPlugin.CWE_NORMALIZER.normalize(cwe));
+					}
+				}
+				break;
+			case CWE_DESCRIPTION:
+				fn.setVulnerabilityAbstract(readText(DESCRIPTION_LIMIT));
+				break;
+			case CVSS_SCORE:
+				fn.setCvssV2Score(readScore());
+				break;
+			case CVSS_ACCESS_VECTOR:
+				fn.setcvssAccessVector(CvssValue.intern(readText()));
+				break;
+			case CVSS_ACCESS_COMPLEXITY:
+				fn.setcvssAccessComplexity(CvssValue.intern(readText()));
+				break;
+			case CVSS_CON_IMPACT:
+				fn.setcvssConfidentialImpact(CvssValue.intern(readText()));
+				break;
+			case CVSS_INT_IMPACT:
+				fn.setcvssIntegrityImpact(CvssValue.intern(readText()));
+				break;
+			case CVSS_AVAIL_IMPACT:
+				fn.setcvssAvailabilityImpact(CvssValue.intern(readText()));
+				break;
+			case CVSS_AUTHENTICATION:
+				fn.setCvssAuthentication(CvssValue.intern(readText()));
+				break;
+			case CVSS_V2:
+				loadCvssV2(fn);
+				break;
+			case CVSS_V3:
+				loadCvssV3(fn);
+				break;
+			case SEVERITY:
+				fn.setPriority(readSeverity());
+				break;
+			case LAST_CHANGE_DATE:
+			case LAST_MODIFIED_DATE:
+				fn.setLastChangeDate(readOptionalDate());
+				break;
+			case ARTIFACT_BUILD_DATE:
+				fn.setArtifactBuildDate(readOptionalDate());
+				break;
+			default:
+				skipElement();
+				break;
+			}
+		}
+	}
+
+	private void loadCvssV2(final DepVuln fn) throws XMLStreamException {
+		while (nextChild()) {
+			final VulnAttribute vulnAttr = CVSS_V2.get(reader.getLocalName());
+			if (vulnAttr == null) {
+				skipElement();
+				continue;
+			}
+			switch (vulnAttr) {
+			case V2_SCORE:
+				fn.setCvssV2Score(readScore());
+				break;
+			case V2_ACCESS_VECTOR:
+				fn.setcvssAccessVector(CvssValue.intern(readText()));
+				break;
+			case V2_ACCESS_COMPLEXITY:
+				fn.setcvssAccessComplexity(CvssValue.intern(readText()));
+				break;
+			case V2_AUTHENTICATION:
+				fn.setCvssAuthentication(CvssValue.intern(readText()));
+				break;
+			case V2_CON_IMPACT:
+				fn.setcvssConfidentialImpact(CvssValue.intern(readText()));
+				break;
+			case V2_INT_IMPACT:
+				fn.setcvssIntegrityImpact(CvssValue.intern(readText()));
+				break;
+			case V2_AVAIL_IMPACT:
+				fn.setcvssAvailabilityImpact(CvssValue.intern(readText()));
+				break;
+			case V2_SEVERITY:
+				final GenPriority priority = readSeverity();
+				if (fn.getPriority() == null) {
+					fn.setPriority(priority);
+				}
+				break;
+			default:
+				skipElement();
+				break;
+			}
+		}
+	}
+
+	private void loadCvssV3(final DepVuln fn) throws XMLStreamException {
+		while (nextChild()) {
+			final VulnAttribute vulnAttr = CVSS_V3.get(reader.getLocalName());
+			if (vulnAttr == null) {
+				skipElement();
+				continue;
+			}
+			switch (vulnAttr) {
+			case V3_SCORE:
+				fn.setCvssV3Score(readScore());
+				break;
+			case V3_ATTACK_VECTOR:
+				fn.setCvssV3AttackVector(CvssValue.intern(readText()));
+				break;
+			case V3_ATTACK_COMPLEXITY:
+				fn.setCvssV3AttackComplexity(CvssValue.intern(readText()));
+				break;
+			case V3_PRIVILEGES_REQUIRED:
+				fn.setCvssV3PrivilegesRequired(CvssValue.intern(readText()));
+				break;
+			case V3_USER_INTERACTION:
+				fn.setCvssV3UserInteraction(CvssValue.intern(readText()));
+				break;
+			case V3_SCOPE:
+				fn.setCvssV3Scope(CvssValue.intern(readText()));
+				break;
+			case V3_CON_IMPACT:
+				fn.setCvssV3ConfidentialityImpact(CvssValue.intern(readText()));
+				break;
+			case V3_INT_IMPACT:
+				fn.setCvssV3IntegrityImpact(CvssValue.intern(readText()));
+				break;
+			case V3_AVAIL_IMPACT:
+				fn.setCvssV3AvailabilityImpact(CvssValue.intern(readText()));
+				break;
+			case V3_SEVERITY:
+				final GenPriority priority = readSeverity();
+				if (fn.getPriority() == null) {
+					fn.setPriority(priority);
+				}
+				break;
+			default:
+				skipElement();
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Advance to the next child element of the current element.
+	 *
+	 * @return true if positioned at the start of a child, false if the end of the current element was reached
+	 */
+	private boolean nextChild() throws XMLStreamException {
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				metrics.tokens++;
+				return true;
+			case XMLStreamConstants.END_ELEMENT:
+				return false;
+			default:
+				break;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Skip the current element including all of its children.
+	 */
+	private void skipElement() throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				break;
+			default:
+				break;
+			}
+		}
+		metrics.skippedSubtrees++;
+	}
+
+	/**
+	 * @return text of the element cut at {@link BoundedText#VALUE_LIMIT}, or null if the element is empty
+	 */
+	private String readText() throws XMLStreamException {
+		return readText(BoundedText.VALUE_LIMIT);
+	}
+
+	/**
+	 * Read the text content of the current element, skipping nested elements. Characters beyond the limit are
+	 * skipped without being copied.
+	 *
+	 * @return text or null if the element is empty
+	 */
+	private String readText(final int limit) throws XMLStreamException {
+		StringBuilder sb = null;
+		boolean truncated = false;
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+				if (depth == 1) {
+					if (sb == null) {
+						sb = new StringBuilder(Math.min(reader.getTextLength(), limit));
+					}
+					final int n = Math.min(reader.getTextLength(), limit - sb.length());
+					sb.append(reader.getTextCharacters(), reader.getTextStart(), n);
+					truncated |= n < reader.getTextLength();
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		if (truncated) {
+			metrics.truncatedFields++;
+			sb.setLength(BoundedText.cut(sb, limit));
+		}
+		return sb != null ? sb.toString() : null;
+	}
+
+	/**
+	 * @return timestamp or null if the element is empty
+	 * @throws IllegalArgumentException if the text is not a supported timestamp
+	 */
+	private Date readDate() throws XMLStreamException {
+		final String text = readText();
+		return text != null ? DepChkParserPlugin.TIMESTAMP_PARSER.parse(text.trim()) : null;
+	}
+
+	/**
+	 * @return report timestamp or null if the element is empty
+	 * @throws ScanParsingException if the text is not a supported timestamp
+	 */
+	private Date readReportDate() throws XMLStreamException, ScanParsingException {
+		final Location location = reader.getLocation();
+		try {
+			return readDate();
+		} catch (IllegalArgumentException e) {
+			final ScanParsingException spe = new ScanParsingException(String.format(
+					"Invalid reportDate at line %d, column %d: %s", location.getLineNumber(),
+					location.getColumnNumber(), e.getMessage()));
+			spe.initCause(e);
+			throw spe;
+		}
+	}
+
+	/**
+	 * @return timestamp, or null if the element is empty or not a supported timestamp
+	 */
+	private Date readOptionalDate() throws XMLStreamException {
+		try {
+			return readDate();
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private float readScore() throws XMLStreamException {
+		final String text = readText();
+		if (text == null) {
+			return Float.NaN;
+		}
+		final String trimmed = text.trim();
+		return SeverityMapper.parseScore(trimmed.toCharArray(), 0, trimmed.length());
+	}
+
+	/**
+	 * @return priority of the severity name, Medium if the name is not recognized, null if there is no name
+	 */
+	private GenPriority readSeverity() throws XMLStreamException {
+		final String text = readText();
+		if (text == null) {
+			return null;
+		}
+		final GenPriority priority = SeverityMapper.fromSeverity(text.trim());
+		return priority != null ? priority : GenPriority.Medium;
+	}
+
+	/**
+	 * @return version part of a <code>https://.../dependency-check.2.2.xsd</code> namespace, the namespace itself if
+	 * it does not follow that pattern
+	 */
+	private static String schemaVersion(final String namespace) {
+		if (namespace == null) {
+			return null;
+		}
+		final int start = namespace.lastIndexOf(SCHEMA_PREFIX);
+		if (start < 0 || !namespace.endsWith(SCHEMA_SUFFIX)) {
+			return namespace;
+		}
+		return namespace.substring(start + SCHEMA_PREFIX.length(), namespace.length() - SCHEMA_SUFFIX.length());
+	}
+
+	private static ScanParsingException parsingException(final XMLStreamException e) {
+		final ScanParsingException spe = new ScanParsingException(
+				String.format("Invalid XML report: %s", e.getMessage()));
+		spe.initCause(e);
+		return spe;
+	}
+
+	private static Map<String, VulnAttribute> elements(final VulnAttribute.Context context, final Object... aliases) {
+		final Map<String, VulnAttribute> map = new HashMap<>();
+		for (final VulnAttribute attr : context.attributes()) {
+			map.put(attr.attrName(), attr);
+		}
+		for (int i = 0; i < aliases.length; i += 2) {
+			map.put((String) aliases[i], (VulnAttribute) aliases[i + 1]);
+		}
+		return map;
+	}
+
+	/**
+	 * Counts the bytes the XML reader takes from the content; its location only knows character offsets.
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+		long count;
+
+		CountingInputStream(final InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			final int b = super.read();
+			if (b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			final int n = super.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(final long n) throws IOException {
+			final long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package com.thirdparty.scan;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.thirdparty.scan.CvssValue.ADJACENT;
+import static com.thirdparty.scan.CvssValue.ADJACENT_NETWORK;
+import static com.thirdparty.scan.CvssValue.CHANGED;
+import static com.thirdparty.scan.CvssValue.COMPLETE;
+import static com.thirdparty.scan.CvssValue.HIGH;
+import static com.thirdparty.scan.CvssValue.LOCAL;
+import static com.thirdparty.scan.CvssValue.LOW;
+import static com.thirdparty.scan.CvssValue.MEDIUM;
+import static com.thirdparty.scan.CvssValue.MULTIPLE;
+import static com.thirdparty.scan.CvssValue.NETWORK;
+import static com.thirdparty.scan.CvssValue.NONE;
+import static com.thirdparty.scan.CvssValue.PARTIAL;
+import static com.thirdparty.scan.CvssValue.PHYSICAL;
+import static com.thirdparty.scan.CvssValue.REQUIRED;
+import static com.thirdparty.scan.CvssValue.SINGLE;
+import static com.thirdparty.scan.CvssValue.UNCHANGED;
+
+/**
+ * <P>CVSS v2 and v3.x base scores computed from the vector components of a finding.
+ * <BR>The components are packed into a <code>long</code> key, two bits each, and the score of every key is computed
+ * once and kept in a lock-free table shared by all parses; there are only 729 v2 and 2592 v3 vectors. A finding
+ * whose vector was seen before costs a few enum comparisons and a table lookup.
+ */
+public final class CvssCalculator {
+
+    /**
+     * Key of a finding without a complete vector of that version.
+     */
+    public static final long NO_VECTOR = -1;
+
+    // reported scores may differ by 0.1 from the computed one, the rounding difference between CVSS 3.0 and 3.1
+    private static final float TOLERANCE = 0.1f + 1e-4f;
+
+    // version in front of the components, v2 keys have 6 and v3 keys 8 components
+    private static final long V2_TAG = 2;
+    private static final long V3_TAG = 3;
+
+    private static final CvssValue[] V2_ACCESS_VECTOR = { LOCAL, ADJACENT_NETWORK, NETWORK };
+    private static final double[] V2_ACCESS_VECTOR_WEIGHTS = { 0.395, 0.646, 1.0 };
+    private static final CvssValue[] V2_ACCESS_COMPLEXITY = { HIGH, MEDIUM, LOW };
+    private static final double[] V2_ACCESS_COMPLEXITY_WEIGHTS = { 0.35, 0.61, 0.71 };
+    private static final CvssValue[] V2_AUTHENTICATION = { MULTIPLE, SINGLE, NONE };
+    private static final double[] V2_AUTHENTICATION_WEIGHTS = { 0.45, 0.56, 0.704 };
+    private static final CvssValue[] V2_IMPACT = { NONE, PARTIAL, COMPLETE };
+    private static final double[] V2_IMPACT_WEIGHTS = { 0.0, 0.275, 0.660 };
+
+    private static final CvssValue[] V3_ATTACK_VECTOR = { NETWORK, ADJACENT_NETWORK, LOCAL, PHYSICAL };
+    private static final double[] V3_ATTACK_VECTOR_WEIGHTS = { 0.85, 0.62, 0.55, 0.2 };
+    private static final CvssValue[] V3_ATTACK_COMPLEXITY = { LOW, HIGH };
+    private static final double[] V3_ATTACK_COMPLEXITY_WEIGHTS = { 0.77, 0.44 };
+    private static final CvssValue[] V3_PRIVILEGES_REQUIRED = { NONE, LOW, HIGH };
+    private static final double[] V3_PRIVILEGES_UNCHANGED_WEIGHTS = { 0.85, 0.62, 0.27 };
+    private static final double[] V3_PRIVILEGES_CHANGED_WEIGHTS = { 0.85, 0.68, 0.5 };
+    private static final CvssValue[] V3_USER_INTERACTION = { NONE, REQUIRED };
+    private static final double[] V3_USER_INTERACTION_WEIGHTS = { 0.85, 0.62 };
+    private static final CvssValue[] V3_SCOPE = { UNCHANGED, CHANGED };
+    private static final CvssValue[] V3_IMPACT = { HIGH, LOW, NONE };
+    private static final double[] V3_IMPACT_WEIGHTS = { 0.56, 0.22, 0.0 };
+
+    // entries are the key in the upper and the float bits of the score in the lower half, 0 for a free slot
+    private static final int TABLE_SIZE = 8192;
+    private static final AtomicLongArray SCORES = new AtomicLongArray(TABLE_SIZE);
+
+    private CvssCalculator() {
+    }
+
+    /**
+     * @return key of the CVSS v2 vector of the finding, {@link #NO_VECTOR} if a component is missing or unknown
+     */
+    public static long v2Key(final DepVuln fn) {
+        long key = V2_TAG;
+        key = append(key, V2_ACCESS_VECTOR, fn.getcvssAccessVector());
+        key = append(key, V2_ACCESS_COMPLEXITY, fn.getcvssAccessComplexity());
+        key = append(key, V2_AUTHENTICATION, fn.getCvssAuthentication());
+        key = append(key, V2_IMPACT, fn.getcvssConfidentialImpact());
+        key = append(key, V2_IMPACT, fn.getcvssIntegrityImpact());
+        return append(key, V2_IMPACT, fn.getcvssAvailabilityImpact());
+    }
+
+    /**
+     * @return key of the CVSS v3 vector of the finding, {@link #NO_VECTOR} if a component is missing or unknown
+     */
+    public static long v3Key(final DepVuln fn) {
+        long key = V3_TAG;
+        key = append(key, V3_ATTACK_VECTOR, fn.getCvssV3AttackVector());
+        key = append(key, V3_ATTACK_COMPLEXITY, fn.getCvssV3AttackComplexity());
+        key = append(key, V3_PRIVILEGES_REQUIRED, fn.getCvssV3PrivilegesRequired());
+        key = append(key, V3_USER_INTERACTION, fn.getCvssV3UserInteraction());
+        key = append(key, V3_SCOPE, fn.getCvssV3Scope());
+        key = append(key, V3_IMPACT, fn.getCvssV3ConfidentialityImpact());
+        key = append(key, V3_IMPACT, fn.getCvssV3IntegrityImpact());
+        return append(key, V3_IMPACT, fn.getCvssV3AvailabilityImpact());
+    }
+
+    /**
+     * @param key key from {@link #v2Key(DepVuln)} or {@link #v3Key(DepVuln)}
+     * @return base score of the vector, {@link Float#NaN} for {@link #NO_VECTOR}
+     */
+    public static float baseScore(final long key) {
+        if (key == NO_VECTOR) {
+            return Float.NaN;
+        }
+        final int start = (int) (mix(key) & (TABLE_SIZE - 1));
+        int i = start;
+        do {
+            long entry = SCORES.get(i);
+            if (entry == 0) {
+                final float score = compute(key);
+                if (SCORES.compareAndSet(i, 0, key << 32 | Float.floatToRawIntBits(score) & 0xffffffffL)) {
+                    return score;
+                }
+                // another thread took the slot meanwhile, possibly for the same vector
+                entry = SCORES.get(i);
+            }
+            if (entry >>> 32 == key) {
+                return Float.intBitsToFloat((int) entry);
+            }
+            i = (i + 1) & (TABLE_SIZE - 1);
+        } while (i != start);
+        return compute(key);
+    }
+
+    /**
+     * @return true if a reported score agrees with the computed one
+     */
+    public static boolean sameScore(final float reported, final float computed) {
+        return Math.abs(reported - computed) <= TOLERANCE;
+    }
+
+    private static long append(final long key, final CvssValue[] values, final String value) {
+        if (key == NO_VECTOR) {
+            return NO_VECTOR;
+        }
+        CvssValue known = CvssValue.of(value);
+        if (known == ADJACENT) {
+            // CVSS v3 name of ADJACENT_NETWORK
+            known = ADJACENT_NETWORK;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == known) {
+                return key << 2 | i;
+            }
+        }
+        return NO_VECTOR;
+    }
+
+    private static long mix(final long key) {
+        final long h = key * 0x9e3779b97f4a7c15L;
+        return h ^ h >>> 32;
+    }
+
+    private static float compute(final long key) {
+        return key >>> 2 * 6 == V2_TAG ? v2Score(key) : v3Score(key);
+    }
+
+    // component i of n, counted from the first one appended
+    private static int component(final long key, final int i, final int n) {
+        return (int) (key >>> 2 * (n - 1 - i)) & 3;
+    }
+
+    private static float v2Score(final long key) {
+        final double impact = 10.41 * (1 - (1 - V2_IMPACT_WEIGHTS[component(key, 3, 6)])
+                * (1 - V2_IMPACT_WEIGHTS[component(key, 4, 6)]) * (1 - V2_IMPACT_WEIGHTS[component(key, 5, 6)]));
+        final double exploitability = 20 * V2_ACCESS_VECTOR_WEIGHTS[component(key, 0, 6)]
+                * V2_ACCESS_COMPLEXITY_WEIGHTS[component(key, 1, 6)] * V2_AUTHENTICATION_WEIGHTS[component(key, 2, 6)];
+        final double score = (0.6 * impact + 0.4 * exploitability - 1.5) * (impact == 0 ? 0 : 1.176);
+        return (float) (Math.round(score * 10) / 10.0);
+    }
+
+    private static float v3Score(final long key) {
+        final boolean changed = V3_SCOPE[component(key, 4, 8)] == CHANGED;
+        final double iss = 1 - (1 - V3_IMPACT_WEIGHTS[component(key, 5, 8)])
+                * (1 - V3_IMPACT_WEIGHTS[component(key, 6, 8)]) * (1 - V3_IMPACT_WEIGHTS[component(key, 7, 8)]);
+        final double impact = changed ? 7.52 * (iss - 0.029) - 3.25 * Math.pow(iss - 0.02, 15) : 6.42 * iss;
+        if (impact <= 0) {
+            return 0f;
+        }
+        final double[] privileges = changed ? V3_PRIVILEGES_CHANGED_WEIGHTS : V3_PRIVILEGES_UNCHANGED_WEIGHTS;
+        final double exploitability = 8.22 * V3_ATTACK_VECTOR_WEIGHTS[component(key, 0, 8)]
+                * V3_ATTACK_COMPLEXITY_WEIGHTS[component(key, 1, 8)] * privileges[component(key, 2, 8)]
+                * V3_USER_INTERACTION_WEIGHTS[component(key, 3, 8)];
+        return roundUp(Math.min((changed ? 1.08 : 1) * (impact + exploitability), 10));
+    }
+
+    // CVSS 3.1 Roundup: smallest one-decimal value not below the input, robust against floating point noise
+    private static float roundUp(final double value) {
+        final long scaled = Math.round(value * 100000);
+        if (scaled % 10000 == 0) {
+            return (float) (scaled / 100000.0);
+        }
+        return (float) ((Math.floor(scaled / 10000.0) + 1) / 10.0);
+    }
+}
@@ -0,0 +1,120 @@
+package com.thirdparty.scan;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <P>Canonical instances of the values CVSS vector fields take in reports, such as <code>NETWORK</code>,
+ * <code>LOW</code> or <code>PARTIAL</code>.
+ * <BR>Known values are matched directly on the token characters and returned as the shared {@link #name()} String
+ * of the constant, so no String is allocated for them. Other values go through a bounded intern cache, so that
+ * findings share one instance per distinct value. The cache is safe for concurrent use.
+ */
+public enum CvssValue {
+    NETWORK, ADJACENT_NETWORK, ADJACENT, LOCAL, PHYSICAL,
+    NONE, LOW, MEDIUM, HIGH, CRITICAL,
+    SINGLE, MULTIPLE, PARTIAL, COMPLETE,
+    REQUIRED, UNCHANGED, CHANGED;
+
+    private static final int MAX_CACHE_SIZE = 256;
+
+    // constants by the length of their name
+    private static final CvssValue[][] BY_LENGTH;
+    private static final ConcurrentMap<String, String> OTHER_VALUES = new ConcurrentHashMap<>();
+
+    static {
+        int maxLength = 0;
+        for (final CvssValue value : values()) {
+            maxLength = Math.max(maxLength, value.name().length());
+        }
+        BY_LENGTH = new CvssValue[maxLength + 1][0];
+        for (final CvssValue value : values()) {
+            final CvssValue[] sameLength = BY_LENGTH[value.name().length()];
+            final CvssValue[] grown = Arrays.copyOf(sameLength, sameLength.length + 1);
+            grown[sameLength.length] = value;
+            BY_LENGTH[value.name().length()] = grown;
+        }
+    }
+
+    private final char[] chars = name().toCharArray();
+
+    /**
+     * @return canonical String for the value in <code>buf[offset, offset + length)</code>, null if it is not a known
+     * value
+     */
+    public static String canonical(final char[] buf, final int offset, final int length) {
+        if (length >= BY_LENGTH.length) {
+            return null;
+        }
+        for (final CvssValue value : BY_LENGTH[length]) {
+            if (value.matches(buf, offset)) {
+                return value.name();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return constant of the value, null if it is not a known value
+     */
+    public static CvssValue of(final String value) {
+        if (value == null || value.length() >= BY_LENGTH.length) {
+            return null;
+        }
+        for (final CvssValue known : BY_LENGTH[value.length()]) {
+            // values read from reports are usually the canonical instances already
+            if (known.name() == value || known.name().equals(value)) {
+                return known;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return canonical or cached instance equal to the value, null for null
+     */
+    public static String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.length() < BY_LENGTH.length) {
+            for (final CvssValue known : BY_LENGTH[value.length()]) {
+                if (known.name().equals(value)) {
+                    return known.name();
+                }
+            }
+        }
+        final String cached = OTHER_VALUES.get(value);
+        if (cached != null) {
+            return cached;
+        }
+        if (OTHER_VALUES.size() >= MAX_CACHE_SIZE) {
+            OTHER_VALUES.clear();
+        }
+        final String previous = OTHER_VALUES.putIfAbsent(value, value);
+        return previous != null ? previous : value;
+    }
+
+    private boolean matches(final char[] buf, final int offset) {
+        for (int i = 0; i < chars.length; i++) {
+            if (buf[offset + i] != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
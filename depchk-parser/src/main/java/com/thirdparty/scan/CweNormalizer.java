@@ -0,0 +1,212 @@
+package com.thirdparty.scan;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <P>Normalizes CWE values found in reports (<code>CWE-79 Improper Neutralization...</code>, <code>CWE-79</code>,
+ * <code>79</code>, <code>NVD-CWE-Other</code>) to the <code>CWE ID n</code> form SSC maps categories by, and names
+ * them from the embedded CWE catalog.
+ * <BR>Reports repeat the same few hundred values across all findings, so results are kept in a bounded cache keyed
+ * by the raw value and each distinct value is parsed once. The cache and the catalog are safe for concurrent use.
+ */
+public class CweNormalizer {
+    private static final Logger LOG = LoggerFactory.getLogger(CweNormalizer.class);
+
+    private static final String CATALOG_RESOURCE = "/cwe/cwe-catalog.txt";
+    private static final String CANONICAL_PREFIX = "CWE ID ";
+    private static final int MAX_CACHE_SIZE = 4096;
+
+    private final ConcurrentMap<String, Cwe> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Normalized CWE. Instances are shared between all findings with the same raw value.
+     */
+    public static final class Cwe {
+        private final int id;
+        private final String canonical;
+        private final String name;
+
+        Cwe(final int id, final String canonical, final String name) {
+            this.id = id;
+            this.canonical = canonical;
+            this.name = name;
+        }
+
+        /**
+         * @return numeric CWE id, 0 for values without one such as <code>NVD-CWE-Other</code>
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return <code>CWE ID n</code>, or the raw identifier for values without a numeric id
+         */
+        public String getCanonical() {
+            return canonical;
+        }
+
+        /**
+         * @return CWE name from the catalog or the report, null if unknown
+         */
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * @param raw CWE value from the report
+     * @return normalized CWE or null if the value is empty
+     */
+    public Cwe normalize(final String raw) {
+        if (raw == null) {
+            return null;
+        }
+        Cwe cwe = cache.get(raw);
+        if (cwe == null) {
+            cwe = parse(raw);
+            if (cwe == null) {
+                return null;
+            }
+            if (cache.size() >= MAX_CACHE_SIZE) {
+                cache.clear();
+            }
+            // a concurrent parse may have added the same value meanwhile, keep its instance shared
+            final Cwe previous = cache.putIfAbsent(raw, cwe);
+            if (previous != null) {
+                return previous;
+            }
+        }
+        return cwe;
+    }
+
+    private static Cwe parse(final String raw) {
+        final int length = raw.length();
+        int start = 0;
+        while (start < length && Character.isWhitespace(raw.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < length && !Character.isWhitespace(raw.charAt(end))) {
+            end++;
+        }
+        if (start == end) {
+            return null;
+        }
+        // name given in the report after the identifier, used when the catalog does not know the id
+        int nameStart = end;
+        while (nameStart < length && Character.isWhitespace(raw.charAt(nameStart))) {
+            nameStart++;
+        }
+        final String reportName = nameStart < length ? raw.substring(nameStart).trim() : null;
+
+        int digits = start;
+        if (end - start > 4 && raw.regionMatches(true, start, "CWE-", 0, 4)) {
+            digits += 4;
+        }
+        final int id = parseId(raw, digits, end);
+        if (id <= 0) {
+            return new Cwe(0, raw.substring(start, end), reportName);
+        }
+        final String catalogName = Catalog.name(id);
+        return new Cwe(id, CANONICAL_PREFIX + id, catalogName != null ? catalogName : reportName);
+    }
+
+    private static int parseId(final String s, final int start, final int end) {
+        if (start == end || end - start > 9) {
+            return -1;
+        }
+        int id = 0;
+        for (int i = start; i < end; i++) {
+            final char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    /**
+     * CWE names by id, loaded on first use. Ids are kept sorted in a primitive array for binary search.
+     */
+    private static final class Catalog {
+        private static final int[] IDS;
+        private static final String[] NAMES;
+
+        static {
+            int[] ids = new int[256];
+            String[] names = new String[256];
+            int size = 0;
+            try (final InputStream in = CweNormalizer.class.getResourceAsStream(CATALOG_RESOURCE)) {
+                if (in == null) {
+                    throw new IOException("Resource not found: " + CATALOG_RESOURCE);
+                }
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final int tab = line.indexOf('\t');
+                    if (line.startsWith("#") || tab <= 0) {
+                        continue;
+                    }
+                    if (size == ids.length) {
+                        ids = Arrays.copyOf(ids, size * 2);
+                        names = Arrays.copyOf(names, size * 2);
+                    }
+                    ids[size] = Integer.parseInt(line.substring(0, tab));
+                    names[size] = line.substring(tab + 1);
+                    size++;
+                }
+            } catch (IOException | NumberFormatException e) {
+                LOG.warn("Unable to load CWE catalog, CWE names will only be taken from reports", e);
+            }
+            sort(ids, names, size);
+            IDS = Arrays.copyOf(ids, size);
+            NAMES = Arrays.copyOf(names, size);
+        }
+
+        static String name(final int id) {
+            final int index = Arrays.binarySearch(IDS, id);
+            return index >= 0 ? NAMES[index] : null;
+        }
+
+        private static void sort(final int[] ids, final String[] names, final int size) {
+            // insertion sort, the catalog is kept ordered so this is normally a single pass
+            for (int i = 1; i < size; i++) {
+                final int id = ids[i];
+                final String name = names[i];
+                int j = i - 1;
+                while (j >= 0 && ids[j] > id) {
+                    ids[j + 1] = ids[j];
+                    names[j + 1] = names[j];
+                    j--;
+                }
+                ids[j + 1] = id;
+                names[j + 1] = name;
+            }
+        }
+    }
+}
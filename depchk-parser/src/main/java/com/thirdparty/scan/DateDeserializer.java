@@ -15,38 +15,16 @@ package com.thirdparty.scan;
 
 import com.fasterxml.jackson.databind.util.StdConverter;
 
-import java.time.DateTimeException;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAccessor;
-import java.time.temporal.TemporalQueries;
 import java.util.Date;
 
+/**
+ * <P>Jackson converter for report timestamps, see {@link TimestampParser} for the accepted formats.
+ */
 public class DateDeserializer extends StdConverter<String, Date> {
-    private static final DateTimeFormatter[] DATE_TIME_FORMATTERS = {DateTimeFormatter.ISO_DATE_TIME};
+    private static final TimestampParser TIMESTAMP_PARSER = new TimestampParser();
 
     @Override
     public Date convert(final String dateStr) {
-        for (final DateTimeFormatter formatter : DATE_TIME_FORMATTERS) {
-            final TemporalAccessor temporalAccessor;
-            try {
-                temporalAccessor = formatter.parse(dateStr);
-            } catch (final DateTimeException e) {
-                // try next parser
-                continue;
-            }
-            final Instant instant;
-            if (temporalAccessor.query(TemporalQueries.offset()) != null) {
-                instant = OffsetDateTime.from(temporalAccessor).toInstant();
-            } else {
-                instant = LocalDateTime.from(temporalAccessor).toInstant(ZoneOffset.UTC);
-            }
-            return Date.from(instant);
-        }
-        // no parser worked
-        throw new IllegalArgumentException("Unsupported date format: " + dateStr);
+        return TIMESTAMP_PARSER.parse(dateStr);
     }
 }
@@ -13,12 +13,18 @@ package com.thirdparty.scan;
  * limitations under the License.
  */
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 //import static com.thirdparty.ScanGenerator.GenPriority;
 //import static com.thirdparty.ScanGenerator.CustomStatus;
 import java.util.Date;
 
+/**
+ * Data of one vulnerability of a {@link Dependency}.
+ * <BR>One instance is reused for all vulnerabilities of a report, {@link #clear()} is called before each of them
+ * so that no value is carried over from the previous vulnerability.
+ */
 @JsonSerialize
 public class DepVuln {
 
@@ -28,12 +34,10 @@ public class DepVuln {
 	        final static int LENGTH = values().length;
 	    };
     // mandatory attributes
-    private String uniqueId;
     private String name;
 
     // builtin attributes
     private String category;
-    private String fileName;
     private String vulnerabilityAbstract;
     private Float confidence;
     private Float impact;
@@ -42,9 +46,8 @@ public class DepVuln {
     // custom attributes
     private String categoryId;
 
-    private String description;
-    private String comment;
     private String cwe;
+    private String cweName;
     private Date lastChangeDate;
     private Date artifactBuildDate;
     //CVSS Attributes
@@ -54,12 +57,74 @@ public class DepVuln {
     private String cvssConfidentialImpact;
     private String cvssIntegrityImpact;
     private String cvssAvailabilityImpact;
-    
- 
+    private String cvssAuthentication;
+    private float cvssV2Score = Float.NaN;
+    //CVSS v3 Attributes
+    private float cvssV3Score = Float.NaN;
+    private String cvssV3AttackVector;
+    private String cvssV3AttackComplexity;
+    private String cvssV3PrivilegesRequired;
+    private String cvssV3UserInteraction;
+    private String cvssV3Scope;
+    private String cvssV3ConfidentialityImpact;
+    private String cvssV3IntegrityImpact;
+    private String cvssV3AvailabilityImpact;
+    // set by VulnerabilityEmitter.normalize, so that a record normalized on a worker is not normalized again
+    private boolean normalized;
+    private boolean scoreMismatch;
+
+    public void clear() {
+        name = null;
+        category = null;
+        vulnerabilityAbstract = null;
+        confidence = null;
+        impact = null;
+        priority = null;
+        categoryId = null;
+        cwe = null;
+        cweName = null;
+        lastChangeDate = null;
+        artifactBuildDate = null;
+        cvssScore = null;
+        cvssAccessVector = null;
+        cvssAccessComplexity = null;
+        cvssConfidentialImpact = null;
+        cvssIntegrityImpact = null;
+        cvssAvailabilityImpact = null;
+        cvssAuthentication = null;
+        cvssV2Score = Float.NaN;
+        cvssV3Score = Float.NaN;
+        cvssV3AttackVector = null;
+        cvssV3AttackComplexity = null;
+        cvssV3PrivilegesRequired = null;
+        cvssV3UserInteraction = null;
+        cvssV3Scope = null;
+        cvssV3ConfidentialityImpact = null;
+        cvssV3IntegrityImpact = null;
+        cvssV3AvailabilityImpact = null;
+        normalized = false;
+        scoreMismatch = false;
+    }
 
+    /**
+     * @return true if scores, impact and priority of the record have been normalized
+     */
+    @JsonIgnore
+    public boolean isNormalized() {
+        return normalized;
+    }
 
-    public String getUniqueId() {
-        return uniqueId;
+    /**
+     * @return true if normalization found a reported score that does not match the score of its vector
+     */
+    @JsonIgnore
+    public boolean isScoreMismatch() {
+        return scoreMismatch;
+    }
+
+    public void markNormalized(final boolean scoreMismatch) {
+        this.normalized = true;
+        this.scoreMismatch = scoreMismatch;
     }
 
     public String getName() {
@@ -74,14 +139,6 @@ public class DepVuln {
         this.category = category;
     }
 
-    public String getFileName() {
-        return fileName;
-    }
-
-    public void setFileName(final String fileName) {
-        this.fileName = fileName;
-    }
-
     public void setName(final String name) {
         this.name = name;
     } 
@@ -107,10 +164,6 @@ public class DepVuln {
 
     public void setImpact(final Float impact) { this.impact = impact; }
 
-    public void setUniqueId(final String uniqueId) {
-        this.uniqueId = uniqueId;
-    }
-
     public GenPriority getPriority() { return priority; }
 
     public void setPriority(final GenPriority priority) { this.priority = priority; }
@@ -119,27 +172,39 @@ public class DepVuln {
 
     public void setCategoryId(final String categoryId) { this.categoryId = categoryId; }
 
-    public String getDescription() { return description; }
-
-    public void setDescription(final String description) { this.description = description; }
-
-    public String getComment() { return comment; }
-
-    public void setComment(final String comment) { this.comment = comment; }
-
     public String getCWE() {
         return cwe;
     }
 
+    /**
+     * @param cwe CWE in the form normalized by {@link CweNormalizer}
+     */
     public void setCWE(final String cwe) {
-    	if (cwe != "") {
-	    	String array1[]= cwe.split(" ");
-	    	String cwetemp = array1[0];
-	    	array1 = cwetemp.split("-");
-	        this.cwe = "CWE ID "+ array1[1]; 
-    	}
-        else
-        	this.cwe = cwe;
+        this.cwe = cwe;
+    }
+
+    /**
+     * Set CWE and CWE name from a normalized CWE. Values without a numeric id, such as <code>NVD-CWE-Other</code>,
+     * do not map to a category and are kept as the name only.
+     */
+    public void applyCwe(final CweNormalizer.Cwe normalized) {
+        if (normalized == null) {
+            return;
+        }
+        if (normalized.getId() > 0) {
+            this.cwe = normalized.getCanonical();
+            this.cweName = normalized.getName();
+        } else {
+            this.cweName = normalized.getName() != null ? normalized.getName() : normalized.getCanonical();
+        }
+    }
+
+    public String getCweName() {
+        return cweName;
+    }
+
+    public void setCweName(final String cweName) {
+        this.cweName = cweName;
     }
 
     @JsonSerialize(converter = DateSerializer.class)
@@ -163,9 +228,8 @@ public class DepVuln {
     }
 
 
-    public String getInstanceId() {
-    	return (this.uniqueId + "-" +this.name);
-    
+    public String getInstanceId(final Dependency dependency) {
+        return dependency.getUniqueId() + "-" + this.name;
     }
     
     public String getcvssScore() {
@@ -207,5 +271,99 @@ public class DepVuln {
     };
     public void setcvssAvailabilityImpact(String cvssAvailabilityImpact) {
     	this.cvssAvailabilityImpact = cvssAvailabilityImpact;
-    };     
+    };
+
+    public String getCvssAuthentication() {
+        return cvssAuthentication;
+    }
+
+    public void setCvssAuthentication(final String cvssAuthentication) {
+        this.cvssAuthentication = cvssAuthentication;
+    }
+
+    /**
+     * @return score or {@link Float#NaN} if not present in the report
+     */
+    public float getCvssV2Score() {
+        return cvssV2Score;
+    }
+
+    public void setCvssV2Score(final float cvssV2Score) {
+        this.cvssV2Score = cvssV2Score;
+    }
+
+    /**
+     * @return score or {@link Float#NaN} if not present in the report
+     */
+    public float getCvssV3Score() {
+        return cvssV3Score;
+    }
+
+    public void setCvssV3Score(final float cvssV3Score) {
+        this.cvssV3Score = cvssV3Score;
+    }
+
+    public String getCvssV3AttackVector() {
+        return cvssV3AttackVector;
+    }
+
+    public void setCvssV3AttackVector(final String cvssV3AttackVector) {
+        this.cvssV3AttackVector = cvssV3AttackVector;
+    }
+
+    public String getCvssV3AttackComplexity() {
+        return cvssV3AttackComplexity;
+    }
+
+    public void setCvssV3AttackComplexity(final String cvssV3AttackComplexity) {
+        this.cvssV3AttackComplexity = cvssV3AttackComplexity;
+    }
+
+    public String getCvssV3PrivilegesRequired() {
+        return cvssV3PrivilegesRequired;
+    }
+
+    public void setCvssV3PrivilegesRequired(final String cvssV3PrivilegesRequired) {
+        this.cvssV3PrivilegesRequired = cvssV3PrivilegesRequired;
+    }
+
+    public String getCvssV3UserInteraction() {
+        return cvssV3UserInteraction;
+    }
+
+    public void setCvssV3UserInteraction(final String cvssV3UserInteraction) {
+        this.cvssV3UserInteraction = cvssV3UserInteraction;
+    }
+
+    public String getCvssV3Scope() {
+        return cvssV3Scope;
+    }
+
+    public void setCvssV3Scope(final String cvssV3Scope) {
+        this.cvssV3Scope = cvssV3Scope;
+    }
+
+    public String getCvssV3ConfidentialityImpact() {
+        return cvssV3ConfidentialityImpact;
+    }
+
+    public void setCvssV3ConfidentialityImpact(final String cvssV3ConfidentialityImpact) {
+        this.cvssV3ConfidentialityImpact = cvssV3ConfidentialityImpact;
+    }
+
+    public String getCvssV3IntegrityImpact() {
+        return cvssV3IntegrityImpact;
+    }
+
+    public void setCvssV3IntegrityImpact(final String cvssV3IntegrityImpact) {
+        this.cvssV3IntegrityImpact = cvssV3IntegrityImpact;
+    }
+
+    public String getCvssV3AvailabilityImpact() {
+        return cvssV3AvailabilityImpact;
+    }
+
+    public void setCvssV3AvailabilityImpact(final String cvssV3AvailabilityImpact) {
+        this.cvssV3AvailabilityImpact = cvssV3AvailabilityImpact;
+    }
 }
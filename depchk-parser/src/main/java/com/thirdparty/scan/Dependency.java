@@ -0,0 +1,100 @@
+package com.thirdparty.scan;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Objects;
+
+/**
+ * Identifying data of the dependency whose vulnerabilities are being parsed.
+ * <BR>One instance is reused for all dependencies of a report, {@link #clear()} is called before each of them.
+ */
+public class Dependency {
+
+    private String uniqueId;
+    private String fileName;
+    private String filePath;
+    private String description;
+    // set once a field is read that Dependency-Check writes after the identifying ones
+    private boolean headerRead;
+
+    public void clear() {
+        uniqueId = null;
+        fileName = null;
+        filePath = null;
+        description = null;
+        headerRead = false;
+    }
+
+    /**
+     * @return independent copy, for handing the current values to another thread
+     */
+    public Dependency copy() {
+        final Dependency copy = new Dependency();
+        copy.uniqueId = uniqueId;
+        copy.fileName = fileName;
+        copy.filePath = filePath;
+        copy.description = description;
+        return copy;
+    }
+
+    public boolean sameAs(final Dependency other) {
+        return Objects.equals(uniqueId, other.uniqueId) && Objects.equals(fileName, other.fileName)
+                && Objects.equals(filePath, other.filePath) && Objects.equals(description, other.description);
+    }
+
+    /**
+     * @return true if the fields emitted with each vulnerability, sha1, file name, path and description, are set, or
+     *         the fields following them were reached; one still missing then is not in the report, like the sha1 of
+     *         a virtual (npm, yarn) dependency
+     */
+    public boolean isIdentified() {
+        return headerRead || uniqueId != null && fileName != null && filePath != null && description != null;
+    }
+
+    public void markHeaderRead() {
+        headerRead = true;
+    }
+
+    public String getUniqueId() {
+        return uniqueId;
+    }
+
+    public void setUniqueId(final String uniqueId) {
+        this.uniqueId = uniqueId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(final String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(final String filePath) {
+        this.filePath = filePath;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(final String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,157 @@
+package com.thirdparty.scan;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.thirdparty.scan.DepVuln.GenPriority;
+
+/**
+ * <P>Maps report severities and CVSS scores to {@link GenPriority} without exceptions or intermediate Strings.
+ * <BR>Severity names are matched case-insensitively against a precomputed table directly on the token characters.
+ * Scores are mapped through the CVSS v3 or v2 qualitative rating bands.
+ */
+public final class SeverityMapper {
+
+    private static final String[] SEVERITY_STRINGS;
+    private static final char[][] SEVERITY_NAMES;
+    private static final GenPriority[] SEVERITY_PRIORITIES;
+
+    static {
+        final Object[][] table = {
+                { "CRITICAL", GenPriority.Critical },
+                { "HIGH", GenPriority.High },
+                { "MEDIUM", GenPriority.Medium },
+                { "MODERATE", GenPriority.Medium },
+                { "LOW", GenPriority.Low },
+                { "INFO", GenPriority.Low },
+                { "INFORMATIONAL", GenPriority.Low },
+                { "NONE", GenPriority.Low } };
+        SEVERITY_STRINGS = new String[table.length];
+        SEVERITY_NAMES = new char[table.length][];
+        SEVERITY_PRIORITIES = new GenPriority[table.length];
+        for (int i = 0; i < table.length; i++) {
+            SEVERITY_STRINGS[i] = (String) table[i][0];
+            SEVERITY_NAMES[i] = SEVERITY_STRINGS[i].toCharArray();
+            SEVERITY_PRIORITIES[i] = (GenPriority) table[i][1];
+        }
+    }
+
+    private SeverityMapper() {
+    }
+
+    /**
+     * @return priority for the severity name in <code>buf[offset, offset + length)</code>, null if not recognized
+     */
+    public static GenPriority fromSeverity(final char[] buf, final int offset, final int length) {
+        for (int i = 0; i < SEVERITY_NAMES.length; i++) {
+            final char[] name = SEVERITY_NAMES[i];
+            if (name.length == length && equalsIgnoreCaseAscii(name, buf, offset)) {
+                return SEVERITY_PRIORITIES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return priority for the severity name, null if not recognized
+     */
+    public static GenPriority fromSeverity(final String severity) {
+        if (severity == null) {
+            return null;
+        }
+        for (int i = 0; i < SEVERITY_STRINGS.length; i++) {
+            final String name = SEVERITY_STRINGS[i];
+            if (name.length() == severity.length() && severity.regionMatches(true, 0, name, 0, name.length())) {
+                return SEVERITY_PRIORITIES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * CVSS v3 bands: critical 9.0-10.0, high 7.0-8.9, medium 4.0-6.9, low (and none) below.
+     */
+    public static GenPriority fromCvss3Score(final float score) {
+        if (score >= 9.0f) {
+            return GenPriority.Critical;
+        } else if (score >= 7.0f) {
+            return GenPriority.High;
+        } else if (score >= 4.0f) {
+            return GenPriority.Medium;
+        }
+        return GenPriority.Low;
+    }
+
+    /**
+     * CVSS v2 bands: high 7.0-10.0, medium 4.0-6.9, low below.
+     */
+    public static GenPriority fromCvss2Score(final float score) {
+        if (score >= 7.0f) {
+            return GenPriority.High;
+        } else if (score >= 4.0f) {
+            return GenPriority.Medium;
+        }
+        return GenPriority.Low;
+    }
+
+    /**
+     * Parse a plain decimal score such as <code>7.5</code> given as a string token.
+     *
+     * @return parsed score or {@link Float#NaN} if the characters are not a plain decimal number
+     */
+    public static float parseScore(final char[] buf, final int offset, final int length) {
+        final int end = offset + length;
+        int i = offset;
+        long mantissa = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            final char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                if (mantissa < Long.MAX_VALUE / 10) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) {
+                        scale++;
+                    }
+                }
+                digits = true;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return Float.NaN;
+            }
+        }
+        if (!digits) {
+            return Float.NaN;
+        }
+        double value = mantissa;
+        while (scale-- > 0) {
+            value /= 10;
+        }
+        return (float) value;
+    }
+
+    private static boolean equalsIgnoreCaseAscii(final char[] upper, final char[] buf, final int offset) {
+        for (int i = 0; i < upper.length; i++) {
+            char c = buf[offset + i];
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            }
+            if (c != upper[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,274 @@
+package com.thirdparty.scan;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * <P>Parser for the timestamps found in Dependency-Check reports, working on the characters of the token.
+ * <BR>Accepts <code>yyyy-MM-dd</code>, optionally followed by <code>T</code> or a space and
+ * <code>HH:mm[:ss[.fraction]]</code>, and an offset <code>Z</code>, <code>+HH:mm</code>, <code>+HHmm</code> or
+ * <code>+HH</code>, optionally followed by a <code>[region]</code> which is ignored. Timestamps without an offset are
+ * UTC. A value of digits only is taken as epoch milliseconds.
+ * <BR>Reports repeat the same few timestamps, so the value parsed last is remembered and returned without parsing
+ * again. Instances are safe for concurrent use.
+ */
+public final class TimestampParser {
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private static final class Recent {
+        final char[] text;
+        final long millis;
+
+        Recent(final char[] text, final long millis) {
+            this.text = text;
+            this.millis = millis;
+        }
+    }
+
+    private volatile Recent recent = new Recent(new char[0], 0);
+
+    /**
+     * @throws IllegalArgumentException if the value is not a supported timestamp
+     */
+    public Date parse(final String value) {
+        return parse(value.toCharArray(), 0, value.length());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the characters are not a supported timestamp
+     */
+    public Date parse(final char[] buf, final int offset, final int length) {
+        return new Date(parseMillis(buf, offset, length));
+    }
+
+    /**
+     * @return milliseconds since the epoch
+     * @throws IllegalArgumentException if the characters are not a supported timestamp
+     */
+    public long parseMillis(final char[] buf, final int offset, final int length) {
+        final Recent last = recent;
+        if (matches(last.text, buf, offset, length)) {
+            return last.millis;
+        }
+        final long millis = parseUncached(buf, offset, length);
+        recent = new Recent(Arrays.copyOfRange(buf, offset, offset + length), millis);
+        return millis;
+    }
+
+    private static boolean matches(final char[] text, final char[] buf, final int offset, final int length) {
+        if (text.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text[i] != buf[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseUncached(final char[] buf, final int offset, final int length) {
+        final Cursor c = new Cursor(buf, offset, offset + length);
+        if (c.allDigits()) {
+            return c.epochMillis();
+        }
+        final int year = c.digits(4);
+        c.expect('-');
+        final int month = c.digits(2);
+        c.expect('-');
+        final int day = c.digits(2);
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            throw c.unsupported();
+        }
+        long millis = daysFromEpoch(year, month, day) * MILLIS_PER_DAY;
+        if (c.at('T') || c.at(' ')) {
+            c.pos++;
+            final int hour = c.digits(2);
+            c.expect(':');
+            final int minute = c.digits(2);
+            int second = 0;
+            int fraction = 0;
+            if (c.at(':')) {
+                c.pos++;
+                second = c.digits(2);
+                if (c.at('.') || c.at(',')) {
+                    c.pos++;
+                    fraction = c.fractionMillis();
+                }
+            }
+            if (hour > 23 || minute > 59 || second > 59) {
+                throw c.unsupported();
+            }
+            millis += ((hour * 60L + minute) * 60 + second) * 1000 + fraction;
+            millis -= c.offsetMillis();
+        }
+        c.region();
+        if (!c.atEnd()) {
+            throw c.unsupported();
+        }
+        return millis;
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int daysInMonth(final int year, final int month) {
+        switch (month) {
+        case 2:
+            return isLeapYear(year) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    // days from 1970-01-01 to the proleptic Gregorian date, as in java.time.LocalDate#toEpochDay
+    private static long daysFromEpoch(final int year, final int month, final int day) {
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = Math.floorDiv(y, 400);
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static final class Cursor {
+        private final char[] buf;
+        private final int start;
+        private final int end;
+        int pos;
+
+        Cursor(final char[] buf, final int start, final int end) {
+            this.buf = buf;
+            this.start = start;
+            this.end = end;
+            this.pos = start;
+        }
+
+        boolean atEnd() {
+            return pos == end;
+        }
+
+        boolean at(final char ch) {
+            return pos < end && buf[pos] == ch;
+        }
+
+        void expect(final char ch) {
+            if (!at(ch)) {
+                throw unsupported();
+            }
+            pos++;
+        }
+
+        boolean allDigits() {
+            int i = start < end && buf[start] == '-' ? start + 1 : start;
+            if (i == end) {
+                return false;
+            }
+            for (; i < end; i++) {
+                if (buf[i] < '0' || buf[i] > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long epochMillis() {
+            try {
+                return Long.parseLong(new String(buf, start, end - start));
+            } catch (NumberFormatException e) {
+                throw unsupported();
+            }
+        }
+
+        int digits(final int count) {
+            if (end - pos < count) {
+                throw unsupported();
+            }
+            int value = 0;
+            for (int i = 0; i < count; i++) {
+                final char ch = buf[pos++];
+                if (ch < '0' || ch > '9') {
+                    throw unsupported();
+                }
+                value = value * 10 + ch - '0';
+            }
+            return value;
+        }
+
+        // 1 to 9 fraction digits, truncated to milliseconds
+        int fractionMillis() {
+            int millis = 0;
+            int count = 0;
+            while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+                if (count < 3) {
+                    millis = millis * 10 + buf[pos] - '0';
+                }
+                count++;
+                pos++;
+            }
+            if (count == 0 || count > 9) {
+                throw unsupported();
+            }
+            for (; count < 3; count++) {
+                millis *= 10;
+            }
+            return millis;
+        }
+
+        int offsetMillis() {
+            if (at('Z') || at('z')) {
+                pos++;
+                return 0;
+            }
+            if (!at('+') && !at('-')) {
+                return 0;
+            }
+            final int sign = buf[pos++] == '-' ? -1 : 1;
+            final int hours = digits(2);
+            int minutes = 0;
+            if (at(':')) {
+                pos++;
+                minutes = digits(2);
+            } else if (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+                minutes = digits(2);
+            }
+            if (hours > 18 || minutes > 59) {
+                throw unsupported();
+            }
+            return sign * (hours * 60 + minutes) * 60 * 1000;
+        }
+
+        void region() {
+            if (at('[')) {
+                while (pos < end && buf[pos] != ']') {
+                    pos++;
+                }
+                expect(']');
+            }
+        }
+
+        IllegalArgumentException unsupported() {
+            return new IllegalArgumentException("Unsupported date format: " + new String(buf, start, end - start));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <P>Parses the report fixtures under <code>/reports</code> through both passes of the plugin and compares the
+ * recorded output of the different parser paths with the sequential parse of the JSON report.
+ * <BR>All fixtures hold the same findings: a jar with three vulnerabilities and a suppressed one, a virtual npm
+ * dependency without a sha1, and the same jar under a second path. The <code>reordered</code> fixtures list the
+ * vulnerabilities of the first two dependencies before their identifying fields.
+ */
+public class DepChkParserPluginTest {
+
+	private static final String JSON_REPORT = "dependency-check-report.json";
+	private static final String XML_REPORT = "dependency-check-report.xml";
+
+	@Test
+	public void sequentialParse() throws Exception {
+		final List<String> calls = parse(plugin(), JSON_REPORT, "/reports/ordered.json");
+		assertEquals(Arrays.asList("11283f21cc480aa86c4df7a0a3243ec508372ed2-CVE-2019-12086",
+				"11283f21cc480aa86c4df7a0a3243ec508372ed2-CVE-2019-14379",
+				"11283f21cc480aa86c4df7a0a3243ec508372ed2-CVE-2019-14439", "null-CVE-2019-10744", "null-1065",
+				"11283f21cc480aa86c4df7a0a3243ec508372ed2-CVE-2019-12086-ccb76788"),
+				RecordingScan.vulnerabilities(calls));
+		assertTrue(calls.contains("  setStringCustomAttributeValue [DESCRIPTION, Lodash modular utilities.]"));
+	}
+
+	@Test
+	public void xmlReportMatchesJsonReport() throws Exception {
+		assertEquals(parse(plugin(), JSON_REPORT, "/reports/ordered.json"),
+				parse(plugin(), XML_REPORT, "/reports/ordered.xml"));
+	}
+
+	@Test
+	public void aggregationEmitsOneVulnerabilityPerDependency() throws Exception {
+		final List<String> calls = parse(plugin(1, null, VulnerabilityEmitter.Aggregation.DEPENDENCY), JSON_REPORT,
+				"/reports/ordered.json");
+		assertEquals(Arrays.asList("11283f21cc480aa86c4df7a0a3243ec508372ed2", "null",
+				"11283f21cc480aa86c4df7a0a3243ec508372ed2-ccb76788"), RecordingScan.vulnerabilities(calls));
+		assertEquals(3, calls.stream().filter(call -> call.contains("[VULNERABILITY_LIST, ")).count());
+		// the XML report is aggregated the same way
+		assertEquals(calls, parse(plugin(1, null, VulnerabilityEmitter.Aggregation.DEPENDENCY), XML_REPORT,
+				"/reports/ordered.xml"));
+	}
+
+	@Test
+	public void reorderedFieldsMatchWellOrderedReport() throws Exception {
+		// vulnerabilities before all fields of the jar and before the description of the npm dependency
+		final List<String> expected = parse(plugin(), JSON_REPORT, "/reports/ordered.json");
+		assertEquals(expected, parse(plugin(), JSON_REPORT, "/reports/reordered.json"));
+		assertEquals(expected,
+				parse(plugin(4, null, VulnerabilityEmitter.Aggregation.NONE), JSON_REPORT, "/reports/reordered.json"));
+		assertEquals(expected, parse(plugin(), XML_REPORT, "/reports/reordered.xml"));
+	}
+
+	@Test
+	public void pipelineMatchesSequentialParse() throws Exception {
+		// dependencies are cut into chunks, decoded on four workers and emitted in report order
+		assertEquals(parse(plugin(), JSON_REPORT, "/reports/ordered.json"),
+				parse(plugin(4, null, VulnerabilityEmitter.Aggregation.NONE), JSON_REPORT, "/reports/ordered.json"));
+		assertEquals(
+				parse(plugin(1, null, VulnerabilityEmitter.Aggregation.CWE), JSON_REPORT, "/reports/ordered.json"),
+				parse(plugin(4, null, VulnerabilityEmitter.Aggregation.CWE), JSON_REPORT, "/reports/ordered.json"));
+	}
+
+	@Test
+	public void cacheReplayMatchesParse() throws Exception {
+		final Path dir = Files.createTempDirectory("depchk-cache");
+		try {
+			final List<String> expected = parse(plugin(), JSON_REPORT, "/reports/ordered.json");
+			final DepChkParserPlugin cached = plugin(1, dir.toString(), VulnerabilityEmitter.Aggregation.NONE);
+			// the first import stores the three dependencies, the second replays them
+			assertEquals(expected, parse(cached, JSON_REPORT, "/reports/ordered.json"));
+			final List<Path> records = DependencyCacheTest.records(dir);
+			assertEquals(3, records.size());
+			assertEquals(expected, parse(cached, JSON_REPORT, "/reports/ordered.json"));
+			assertEquals(records, DependencyCacheTest.records(dir));
+
+			// damaged records are dropped and decoded again
+			for (final Path record : records) {
+				Files.write(record, new byte[] { 1, 2, 3 });
+			}
+			assertEquals(expected, parse(cached, JSON_REPORT, "/reports/ordered.json"));
+			assertEquals(expected, parse(cached, JSON_REPORT, "/reports/ordered.json"));
+			// records are not shared between layouts
+			assertEquals(expected, parse(new DepChkParserPlugin(-1, false, false, 1, dir.toString(),
+					VulnerabilityEmitter.Aggregation.NONE), JSON_REPORT, "/reports/ordered.json"));
+			assertEquals(6, DependencyCacheTest.records(dir).size());
+		} finally {
+			DependencyCacheTest.delete(dir);
+		}
+	}
+
+	static DepChkParserPlugin plugin() {
+		return plugin(1, null, VulnerabilityEmitter.Aggregation.NONE);
+	}
+
+	static DepChkParserPlugin plugin(final int parallelism, final String cacheDir,
+			final VulnerabilityEmitter.Aggregation aggregation) {
+		return new DepChkParserPlugin(-1, false, true, parallelism, cacheDir, aggregation);
+	}
+
+	static List<String> parse(final DepChkParserPlugin plugin, final String entryName, final String resource)
+			throws Exception {
+		plugin.start();
+		try {
+			return new RecordingScan("test").entry(entryName, resource).parse(plugin);
+		} finally {
+			plugin.stop();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.thirdparty.scan.DepVuln;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyCacheTest {
+
+	@Test
+	public void pluginVersionIsFilledInByBuild() {
+		// runs against the processed plugin.xml, like the packaged plugin
+		final String version = DependencyCache.pluginVersion();
+		assertTrue(version, version.matches("(\\d+)(\\.\\d+)*"));
+	}
+
+	@Test
+	public void replaysStoredRecord() throws IOException {
+		final Path dir = Files.createTempDirectory("depchk-cache");
+		try {
+			final DependencyCache cache = DependencyCache.open(dir, 1 << 20);
+			final byte[] key = key(cache, "commons-io");
+			assertFalse(cache.replay(key, new DependencyPipeline.Decoded("test")));
+			cache.put(key, decoded("commons-io", "CVE-2021-29425"));
+
+			// a cache opened later on the same directory, e.g. by another JVM, sees the record
+			final DependencyCache other = DependencyCache.open(dir, 1 << 20);
+			final DependencyPipeline.Decoded replayed = new DependencyPipeline.Decoded("test");
+			assertTrue(other.replay(key, replayed));
+			assertEquals("commons-io", replayed.dependency.getUniqueId());
+			assertEquals("lib/commons-io.jar", replayed.dependency.getFilePath());
+			assertEquals(1, replayed.findings.size());
+			final DepVuln fn = replayed.findings.get(0);
+			assertEquals("CVE-2021-29425", fn.getName());
+			assertEquals(4.8f, fn.getImpact(), 0.0f);
+			assertEquals(DepVuln.GenPriority.Medium, fn.getPriority());
+			assertTrue(fn.isNormalized());
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	public void damagedRecordIsDeleted() throws IOException {
+		final Path dir = Files.createTempDirectory("depchk-cache");
+		try {
+			final DependencyCache cache = DependencyCache.open(dir, 1 << 20);
+			final byte[] key = key(cache, "commons-io");
+			cache.put(key, decoded("commons-io", "CVE-2021-29425"));
+			final List<Path> records = records(dir);
+			assertEquals(1, records.size());
+			final byte[] bytes = Files.readAllBytes(records.get(0));
+			bytes[bytes.length - 1] ^= 1;
+			Files.write(records.get(0), bytes);
+
+			assertFalse(cache.replay(key, new DependencyPipeline.Decoded("test")));
+			assertEquals(0, records(dir).size());
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	public void staysWithinMaxBytes() throws IOException {
+		final Path dir = Files.createTempDirectory("depchk-cache");
+		try {
+			final DependencyCache cache = DependencyCache.open(dir, 4096);
+			final List<byte[]> keys = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				keys.add(key(cache, "dependency-" + i));
+				cache.put(keys.get(i), decoded("dependency-" + i, "CVE-2021-" + i));
+			}
+			long size = 0;
+			for (final Path record : records(dir)) {
+				size += Files.size(record);
+			}
+			assertTrue(size <= 4096);
+			// the most recent record is kept
+			assertTrue(cache.replay(keys.get(99), new DependencyPipeline.Decoded("test")));
+		} finally {
+			delete(dir);
+		}
+	}
+
+	private static byte[] key(final DependencyCache cache, final String dependency) {
+		return cache.key(ReportLayout.GENERIC, false, ("{\"sha1\":\"" + dependency + "\"}")
+				.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static DependencyPipeline.Decoded decoded(final String uniqueId, final String name) {
+		final DependencyPipeline.Decoded decoded = new DependencyPipeline.Decoded("test");
+		decoded.dependency.setUniqueId(uniqueId);
+		decoded.dependency.setFileName(uniqueId + ".jar");
+		decoded.dependency.setFilePath("lib/" + uniqueId + ".jar");
+		final DepVuln fn = decoded.nextRecord();
+		fn.setName(name);
+		fn.setCvssV3Score(4.8f);
+		decoded.accept(decoded.dependency, fn);
+		return decoded;
+	}
+
+	static List<Path> records(final Path dir) throws IOException {
+		try (final Stream<Path> files = Files.walk(dir)) {
+			return files.filter(file -> file.toString().endsWith(".dep")).sorted().collect(Collectors.toList());
+		}
+	}
+
+	static void delete(final Path dir) throws IOException {
+		try (final Stream<Path> files = Files.walk(dir)) {
+			for (final Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+}
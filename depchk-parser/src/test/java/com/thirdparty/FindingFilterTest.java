@@ -0,0 +1,69 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FindingFilterTest {
+
+	@Test
+	public void singleStarStaysInDirectory() {
+		final Pattern pattern = FindingFilter.globs(new String[] { "lib/*.jar" });
+		assertTrue(pattern.matcher("lib/commons-io-2.5.jar").matches());
+		assertFalse(pattern.matcher("lib/ext/commons-io-2.5.jar").matches());
+		assertFalse(pattern.matcher("app/lib/commons-io-2.5.jar").matches());
+	}
+
+	@Test
+	public void doubleStarCrossesDirectories() {
+		final Pattern pattern = FindingFilter.globs(new String[] { "**/test/**" });
+		assertTrue(pattern.matcher("app/src/test/lib/junit.jar").matches());
+		assertFalse(pattern.matcher("app/src/main/lib/guava.jar").matches());
+		assertTrue(FindingFilter.globs(new String[] { "**.jar" }).matcher("a/b/c.jar").matches());
+	}
+
+	@Test
+	public void questionMarkIsOneCharacter() {
+		final Pattern pattern = FindingFilter.globs(new String[] { "lib/log4j-1.2.1?.jar" });
+		assertTrue(pattern.matcher("lib/log4j-1.2.17.jar").matches());
+		assertFalse(pattern.matcher("lib/log4j-1.2.1.jar").matches());
+		assertFalse(FindingFilter.globs(new String[] { "lib?x.jar" }).matcher("lib/x.jar").matches());
+	}
+
+	@Test
+	public void regexCharactersAreLiteral() {
+		final Pattern pattern = FindingFilter.globs(new String[] { "lib/a+b(1).jar" });
+		assertTrue(pattern.matcher("lib/a+b(1).jar").matches());
+		assertFalse(pattern.matcher("lib/aab(1)xjar").matches());
+	}
+
+	@Test
+	public void anyOfSeveralGlobs() {
+		final Pattern pattern = FindingFilter.globs(new String[] { "*.war", "lib/**" });
+		assertTrue(pattern.matcher("app.war").matches());
+		assertTrue(pattern.matcher("lib/a/b.jar").matches());
+		assertFalse(pattern.matcher("app.ear").matches());
+	}
+
+	@Test
+	public void backslashesAreSeparators() {
+		final Pattern pattern = FindingFilter.globs(new String[] { "lib\\*.jar" });
+		assertTrue(pattern.matcher("lib/guava.jar").matches());
+	}
+}
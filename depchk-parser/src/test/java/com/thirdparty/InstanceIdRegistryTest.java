@@ -0,0 +1,63 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.thirdparty.scan.Dependency;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InstanceIdRegistryTest {
+
+	@Test
+	public void repeatedFindingIsDropped() {
+		final InstanceIdRegistry registry = new InstanceIdRegistry();
+		assertEquals("CVE-1", registry.resolve("CVE-1", dependency("lib/a.jar")));
+		assertNull(registry.resolve("CVE-1", dependency("lib/a.jar")));
+	}
+
+	@Test
+	public void otherPathIsSuffixed() {
+		final InstanceIdRegistry registry = new InstanceIdRegistry();
+		assertEquals("CVE-1", registry.resolve("CVE-1", dependency("lib/a.jar")));
+		final String suffixed = registry.resolve("CVE-1", dependency("war/lib/a.jar"));
+		assertTrue(suffixed.startsWith("CVE-1-"));
+		// stable between scans
+		final InstanceIdRegistry next = new InstanceIdRegistry();
+		next.resolve("CVE-1", dependency("lib/a.jar"));
+		assertEquals(suffixed, next.resolve("CVE-1", dependency("war/lib/a.jar")));
+		assertTrue(registry.resolve("CVE-1", dependency(null)).startsWith("CVE-1-"));
+	}
+
+	@Test
+	public void takenSuffixGetsCounter() {
+		final InstanceIdRegistry probe = new InstanceIdRegistry();
+		probe.resolve("CVE-1", dependency("lib/a.jar"));
+		final String suffixed = probe.resolve("CVE-1", dependency("war/lib/a.jar"));
+
+		final InstanceIdRegistry registry = new InstanceIdRegistry();
+		// a finding whose own id equals the suffixed id emitted first
+		assertEquals(suffixed, registry.resolve(suffixed, dependency("other.jar")));
+		assertEquals("CVE-1", registry.resolve("CVE-1", dependency("lib/a.jar")));
+		assertEquals(suffixed + "-2", registry.resolve("CVE-1", dependency("war/lib/a.jar")));
+	}
+
+	private static Dependency dependency(final String filePath) {
+		final Dependency dependency = new Dependency();
+		dependency.setFilePath(filePath);
+		return dependency;
+	}
+}
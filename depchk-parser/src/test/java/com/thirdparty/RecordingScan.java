@@ -0,0 +1,167 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.fortify.plugin.api.ScanBuilder;
+import com.fortify.plugin.api.ScanData;
+import com.fortify.plugin.api.ScanEntry;
+import com.fortify.plugin.api.StaticVulnerabilityBuilder;
+import com.fortify.plugin.api.VulnerabilityHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * <P>Stand-ins for the SSC side of the plugin API, serving report fixtures and recording the plugin's output.
+ * <BR>Implemented as dynamic proxies so they do not depend on the full method set of the plugin-api interfaces.
+ */
+final class RecordingScan {
+
+	private final String sessionId;
+	private final Map<String, byte[]> entries = new LinkedHashMap<>();
+	// every call on the scan builder and the vulnerability builders, in order
+	private final List<String> calls = new ArrayList<>();
+
+	RecordingScan(final String sessionId) {
+		this.sessionId = sessionId;
+	}
+
+	/**
+	 * Add a scan entry with the content of a test resource.
+	 */
+	RecordingScan entry(final String entryName, final String resource) throws IOException {
+		try (final InputStream in = RecordingScan.class.getResourceAsStream(resource)) {
+			if (in == null) {
+				throw new FileNotFoundException(resource);
+			}
+			final ByteArrayOutputStream content = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			for (int n; (n = in.read(buffer)) > 0;) {
+				content.write(buffer, 0, n);
+			}
+			entries.put(entryName, content.toByteArray());
+		}
+		return this;
+	}
+
+	/**
+	 * Run both passes of an import the way SSC does.
+	 *
+	 * @return calls on the scan builder, then the started vulnerabilities, each followed by the calls on its builder
+	 */
+	List<String> parse(final DepChkParserPlugin plugin) throws Exception {
+		final ScanData scanData = scanData();
+		plugin.parseScan(scanData, recorder(ScanBuilder.class, "scan."));
+		plugin.parseVulnerabilities(scanData, (VulnerabilityHandler) Proxy.newProxyInstance(
+				VulnerabilityHandler.class.getClassLoader(), new Class<?>[] { VulnerabilityHandler.class },
+				(proxy, method, args) -> {
+					if ("startStaticVulnerability".equals(method.getName())) {
+						calls.add("vulnerability " + args[0]);
+						return recorder(StaticVulnerabilityBuilder.class, "  ");
+					}
+					return objectMethod(proxy, method.getName(), args);
+				}));
+		return calls;
+	}
+
+	/**
+	 * @return the recorded vulnerabilities, ids only
+	 */
+	static List<String> vulnerabilities(final List<String> calls) {
+		final List<String> ids = new ArrayList<>();
+		for (final String call : calls) {
+			if (call.startsWith("vulnerability ")) {
+				ids.add(call.substring("vulnerability ".length()));
+			}
+		}
+		return ids;
+	}
+
+	@SuppressWarnings("unchecked")
+	private ScanData scanData() {
+		final List<ScanEntry> scanEntries = new ArrayList<>();
+		for (final String entryName : entries.keySet()) {
+			final int index = scanEntries.size();
+			scanEntries.add((ScanEntry) Proxy.newProxyInstance(ScanEntry.class.getClassLoader(),
+					new Class<?>[] { ScanEntry.class }, (proxy, method, args) -> {
+						switch (method.getName()) {
+						case "getEntryName":
+							return entryName;
+						case "getEntryIndex":
+							return index;
+						default:
+							return objectMethod(proxy, method.getName(), args);
+						}
+					}));
+		}
+		return (ScanData) Proxy.newProxyInstance(ScanData.class.getClassLoader(), new Class<?>[] { ScanData.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getSessionId":
+						return sessionId;
+					case "getScanEntries":
+						return scanEntries;
+					case "getInputStream":
+						if (args[0] instanceof ScanEntry) {
+							return new ByteArrayInputStream(entries.get(((ScanEntry) args[0]).getEntryName()));
+						}
+						for (final Map.Entry<String, byte[]> entry : entries.entrySet()) {
+							if (((Predicate<String>) args[0]).test(entry.getKey())) {
+								return new ByteArrayInputStream(entry.getValue());
+							}
+						}
+						throw new FileNotFoundException("No scan entry matches");
+					default:
+						return objectMethod(proxy, method.getName(), args);
+					}
+				});
+	}
+
+	private <T> T recorder(final Class<T> type, final String prefix) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					final Object result = objectMethod(proxy, method.getName(), args);
+					if (result == null) {
+						calls.add(prefix + method.getName() + ' ' + Arrays.deepToString(args));
+					}
+					return result;
+				}));
+	}
+
+	/**
+	 * @return result of an {@link Object} method on the proxy, null for other methods
+	 */
+	private static Object objectMethod(final Object proxy, final String method, final Object[] args) {
+		switch (method) {
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "toString":
+			return "RecordingScan proxy";
+		default:
+			return null;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.thirdparty.scan;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Base scores of reference vectors as published by the NVD calculators for CVSS v2 and v3.1.
+ */
+public class CvssCalculatorTest {
+
+    @Test
+    public void v2BaseScores() {
+        assertEquals(7.5f, v2("NETWORK", "LOW", "NONE", "PARTIAL", "PARTIAL", "PARTIAL"), 0f);
+        assertEquals(4.3f, v2("NETWORK", "MEDIUM", "NONE", "NONE", "PARTIAL", "NONE"), 0f);
+        assertEquals(10.0f, v2("NETWORK", "LOW", "NONE", "COMPLETE", "COMPLETE", "COMPLETE"), 0f);
+        assertEquals(4.6f, v2("LOCAL", "LOW", "NONE", "PARTIAL", "PARTIAL", "PARTIAL"), 0f);
+        assertEquals(6.5f, v2("NETWORK", "LOW", "SINGLE", "PARTIAL", "PARTIAL", "PARTIAL"), 0f);
+        assertEquals(0.0f, v2("NETWORK", "LOW", "NONE", "NONE", "NONE", "NONE"), 0f);
+    }
+
+    @Test
+    public void v3BaseScores() {
+        assertEquals(9.8f, v3("NETWORK", "LOW", "NONE", "NONE", "UNCHANGED", "HIGH", "HIGH", "HIGH"), 0f);
+        assertEquals(7.5f, v3("NETWORK", "LOW", "NONE", "NONE", "UNCHANGED", "HIGH", "NONE", "NONE"), 0f);
+        assertEquals(6.1f, v3("NETWORK", "LOW", "NONE", "REQUIRED", "CHANGED", "LOW", "LOW", "NONE"), 0f);
+        assertEquals(10.0f, v3("NETWORK", "LOW", "NONE", "NONE", "CHANGED", "HIGH", "HIGH", "HIGH"), 0f);
+        assertEquals(7.8f, v3("LOCAL", "LOW", "LOW", "NONE", "UNCHANGED", "HIGH", "HIGH", "HIGH"), 0f);
+        assertEquals(1.8f, v3("PHYSICAL", "HIGH", "HIGH", "REQUIRED", "CHANGED", "LOW", "NONE", "NONE"), 0f);
+        assertEquals(0.0f, v3("NETWORK", "LOW", "NONE", "NONE", "UNCHANGED", "NONE", "NONE", "NONE"), 0f);
+    }
+
+    @Test
+    public void adjacentIsTheV3NameOfAdjacentNetwork() {
+        assertEquals(8.8f, v3("ADJACENT", "LOW", "NONE", "NONE", "UNCHANGED", "HIGH", "HIGH", "HIGH"), 0f);
+        assertEquals(8.8f, v3("ADJACENT_NETWORK", "LOW", "NONE", "NONE", "UNCHANGED", "HIGH", "HIGH", "HIGH"), 0f);
+    }
+
+    @Test
+    public void incompleteVectorHasNoScore() {
+        final DepVuln fn = new DepVuln();
+        fn.setcvssAccessVector("NETWORK");
+        fn.setcvssAccessComplexity("LOW");
+        fn.setCvssAuthentication("NONE");
+        fn.setcvssConfidentialImpact("PARTIAL");
+        fn.setcvssIntegrityImpact("PARTIAL");
+        assertEquals(CvssCalculator.NO_VECTOR, CvssCalculator.v2Key(fn));
+        fn.setcvssAvailabilityImpact("UNKNOWN");
+        assertEquals(CvssCalculator.NO_VECTOR, CvssCalculator.v2Key(fn));
+        assertTrue(Float.isNaN(CvssCalculator.baseScore(CvssCalculator.NO_VECTOR)));
+    }
+
+    @Test
+    public void scoresAreCachedPerVector() {
+        final float first = v3("NETWORK", "HIGH", "LOW", "REQUIRED", "UNCHANGED", "LOW", "HIGH", "NONE");
+        assertEquals(first, v3("NETWORK", "HIGH", "LOW", "REQUIRED", "UNCHANGED", "LOW", "HIGH", "NONE"), 0f);
+        assertEquals(5.4f, first, 0f);
+    }
+
+    @Test
+    public void reportedScoresMayDifferByTheRounding() {
+        assertTrue(CvssCalculator.sameScore(9.8f, 9.8f));
+        assertTrue(CvssCalculator.sameScore(5.7f, 5.6f));
+        assertFalse(CvssCalculator.sameScore(5.8f, 5.6f));
+    }
+
+    private static float v2(final String accessVector, final String accessComplexity, final String authentication,
+            final String confidentiality, final String integrity, final String availability) {
+        final DepVuln fn = new DepVuln();
+        fn.setcvssAccessVector(accessVector);
+        fn.setcvssAccessComplexity(accessComplexity);
+        fn.setCvssAuthentication(authentication);
+        fn.setcvssConfidentialImpact(confidentiality);
+        fn.setcvssIntegrityImpact(integrity);
+        fn.setcvssAvailabilityImpact(availability);
+        return CvssCalculator.baseScore(CvssCalculator.v2Key(fn));
+    }
+
+    private static float v3(final String attackVector, final String attackComplexity, final String privileges,
+            final String userInteraction, final String scope, final String confidentiality, final String integrity,
+            final String availability) {
+        final DepVuln fn = new DepVuln();
+        fn.setCvssV3AttackVector(attackVector);
+        fn.setCvssV3AttackComplexity(attackComplexity);
+        fn.setCvssV3PrivilegesRequired(privileges);
+        fn.setCvssV3UserInteraction(userInteraction);
+        fn.setCvssV3Scope(scope);
+        fn.setCvssV3ConfidentialityImpact(confidentiality);
+        fn.setCvssV3IntegrityImpact(integrity);
+        fn.setCvssV3AvailabilityImpact(availability);
+        return CvssCalculator.baseScore(CvssCalculator.v3Key(fn));
+    }
+}
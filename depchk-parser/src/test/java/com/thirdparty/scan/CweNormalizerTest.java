@@ -0,0 +1,75 @@
+package com.thirdparty.scan;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CweNormalizerTest {
+
+    private final CweNormalizer normalizer = new CweNormalizer();
+
+    @Test
+    public void idWithReportName() {
+        final CweNormalizer.Cwe cwe = normalizer.normalize("CWE-79 Improper Neutralization of Input");
+        assertEquals(79, cwe.getId());
+        assertEquals("CWE ID 79", cwe.getCanonical());
+        // the catalog name wins over the one in the report
+        assertEquals("Improper Neutralization of Input During Web Page Generation ('Cross-site Scripting')",
+                cwe.getName());
+    }
+
+    @Test
+    public void idOnly() {
+        assertEquals("CWE ID 502", normalizer.normalize("CWE-502").getCanonical());
+        assertEquals("CWE ID 502", normalizer.normalize("cwe-502").getCanonical());
+        assertEquals("CWE ID 502", normalizer.normalize("502").getCanonical());
+        assertEquals("CWE ID 502", normalizer.normalize("  CWE-502  ").getCanonical());
+        assertEquals("Deserialization of Untrusted Data", normalizer.normalize("502").getName());
+    }
+
+    @Test
+    public void unknownIdKeepsReportName() {
+        final CweNormalizer.Cwe cwe = normalizer.normalize("CWE-999999 Made Up Weakness");
+        assertEquals(999999, cwe.getId());
+        assertEquals("CWE ID 999999", cwe.getCanonical());
+        assertEquals("Made Up Weakness", cwe.getName());
+        assertNull(normalizer.normalize("CWE-999999").getName());
+    }
+
+    @Test
+    public void withoutNumericId() {
+        final CweNormalizer.Cwe cwe = normalizer.normalize("NVD-CWE-Other");
+        assertEquals(0, cwe.getId());
+        assertEquals("NVD-CWE-Other", cwe.getCanonical());
+        assertEquals(0, normalizer.normalize("CWE-").getId());
+        assertEquals(0, normalizer.normalize("CWE-12a").getId());
+        assertEquals(0, normalizer.normalize("CWE-1234567890").getId());
+    }
+
+    @Test
+    public void emptyValues() {
+        assertNull(normalizer.normalize(null));
+        assertNull(normalizer.normalize(""));
+        assertNull(normalizer.normalize("   "));
+    }
+
+    @Test
+    public void sameValueSharesInstance() {
+        assertSame(normalizer.normalize("CWE-79"), normalizer.normalize("CWE-79"));
+    }
+}
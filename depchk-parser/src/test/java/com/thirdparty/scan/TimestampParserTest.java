@@ -0,0 +1,118 @@
+package com.thirdparty.scan;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimestampParserTest {
+
+    private static final long EXPECTED = Instant.parse("2018-03-22T14:07:13Z").toEpochMilli();
+
+    private final TimestampParser parser = new TimestampParser();
+
+    @Test
+    public void dateAndTimeSeparators() {
+        assertEquals(EXPECTED, millis("2018-03-22T14:07:13Z"));
+        assertEquals(EXPECTED, millis("2018-03-22 14:07:13Z"));
+    }
+
+    @Test
+    public void optionalSecondsAndFraction() {
+        assertEquals(EXPECTED - 13000, millis("2018-03-22T14:07Z"));
+        assertEquals(EXPECTED + 123, millis("2018-03-22T14:07:13.123Z"));
+        assertEquals(EXPECTED + 500, millis("2018-03-22T14:07:13,5Z"));
+        assertEquals(EXPECTED + 123, millis("2018-03-22T14:07:13.123456789Z"));
+    }
+
+    @Test
+    public void offsets() {
+        assertEquals(EXPECTED, millis("2018-03-22T14:07:13z"));
+        assertEquals(EXPECTED, millis("2018-03-22T16:07:13+02:00"));
+        assertEquals(EXPECTED, millis("2018-03-22T16:07:13+0200"));
+        assertEquals(EXPECTED, millis("2018-03-22T09:07:13-05"));
+        assertEquals(EXPECTED, millis("2018-03-22T19:37:13+0530"));
+        assertEquals(EXPECTED, millis("2018-03-22T10:37:13-03:30"));
+    }
+
+    @Test
+    public void withoutOffsetIsUtc() {
+        assertEquals(EXPECTED, millis("2018-03-22T14:07:13"));
+        assertEquals(Instant.parse("2018-03-22T00:00:00Z").toEpochMilli(), millis("2018-03-22"));
+    }
+
+    @Test
+    public void regionIsIgnored() {
+        assertEquals(EXPECTED, millis("2018-03-22T15:07:13+01:00[Europe/Paris]"));
+    }
+
+    @Test
+    public void epochMillis() {
+        assertEquals(1521727633123L, millis("1521727633123"));
+        assertEquals(EXPECTED, parser.parse(String.valueOf(EXPECTED)).getTime());
+    }
+
+    @Test
+    public void leapDays() {
+        assertEquals(Instant.parse("2016-02-29T00:00:00Z").toEpochMilli(), millis("2016-02-29"));
+        assertEquals(Instant.parse("2000-02-29T00:00:00Z").toEpochMilli(), millis("2000-02-29"));
+        assertEquals(Instant.parse("1969-12-31T23:59:59Z").toEpochMilli(), millis("1969-12-31T23:59:59Z"));
+    }
+
+    @Test
+    public void partOfABuffer() {
+        final char[] buf = "\"2018-03-22T14:07:13Z\"".toCharArray();
+        assertEquals(EXPECTED, parser.parseMillis(buf, 1, buf.length - 2));
+        assertEquals(EXPECTED, parser.parseMillis(buf, 1, buf.length - 2));
+        assertEquals(EXPECTED + 1000, millis("2018-03-22T14:07:14Z"));
+        assertEquals(EXPECTED, parser.parseMillis(buf, 1, buf.length - 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDay() {
+        millis("2018-02-29");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidHour() {
+        millis("2018-03-22T24:00Z");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidOffset() {
+        millis("2018-03-22T14:07:13+19:00");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void trailingCharacters() {
+        millis("2018-03-22T14:07:13Z UTC");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unclosedRegion() {
+        millis("2018-03-22T14:07:13Z[UTC");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyFractionDigits() {
+        millis("2018-03-22T14:07:13.1234567890Z");
+    }
+
+    private long millis(final String value) {
+        return parser.parse(value).getTime();
+    }
+}
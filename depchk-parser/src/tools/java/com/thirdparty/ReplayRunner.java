@@ -0,0 +1,349 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.fortify.plugin.api.ScanBuilder;
+import com.fortify.plugin.api.ScanData;
+import com.fortify.plugin.api.ScanEntry;
+import com.fortify.plugin.api.StaticVulnerabilityBuilder;
+import com.fortify.plugin.api.VulnerabilityHandler;
+import com.fortify.plugin.spi.ParserPlugin;
+
+import java.io.BufferedInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * <P>Runs the parser plugin on a report outside of SSC, for profiling production reports locally.
+ * <BR>The plugin is loaded through its <code>META-INF/services</code> entry, like SSC does. The report is served
+ * by a file backed {@link ScanData}: either a single report file, or a scan ZIP as uploaded to SSC whose entries
+ * become the scan entries. SSC's builders are replaced by recording stand-ins which count every call.
+ * <BR>After each run wall time, throughput, peak heap, GC time and the recorded counts are printed. Throughput is
+ * measured in report bytes parsed as counted by {@link ParseMetrics}, peak heap by sampling the used heap. Attach
+ * async-profiler or start the JVM with <code>-XX:StartFlightRecording</code> to profile the runs.
+ * <P>Usage: <code>ReplayRunner &lt;report file or scan.zip&gt; [runs]</code>
+ */
+public class ReplayRunner {
+
+	private final Path input;
+	private final PrintStream out;
+
+	ReplayRunner(final Path input, final PrintStream out) {
+		this.input = input;
+		this.out = out;
+	}
+
+	public static void main(final String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: ReplayRunner <report file or scan.zip> [runs]");
+			System.exit(1);
+		}
+		final int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		final ReplayRunner runner = new ReplayRunner(Paths.get(args[0]), System.out);
+		for (int run = 1; run <= runs; run++) {
+			runner.run(run);
+		}
+	}
+
+	/**
+	 * Parse the input once with a freshly loaded and started plugin and print the statistics of the run.
+	 */
+	void run(final int run) throws Exception {
+		final ParserPlugin<?> plugin = loadPlugin();
+		final Recorder recorder = new Recorder();
+		final long bytes = Files.size(input);
+		final AtomicLong parsedBytes = new AtomicLong();
+		ParseMetrics.summaryListener = metrics -> parsedBytes.addAndGet(metrics.bytesRead);
+		plugin.start();
+		try (final FileScanData scanData = new FileScanData(input, "replay-" + run)) {
+			final RunStats stats = new RunStats();
+			try {
+				plugin.parseScan(scanData.proxy, recorder.scanBuilder());
+				plugin.parseVulnerabilities(scanData.proxy, recorder.vulnerabilityHandler());
+			} finally {
+				stats.stop();
+			}
+			out.println(String.format("Run %d: %s, %d bytes in %d entries", run, input, bytes,
+					scanData.entries.size()));
+			final double seconds = stats.wallNanos / 1e9;
+			out.println(String.format("  wall %d ms, %d report bytes parsed, %.1f MB/s, %.0f vulnerabilities/s",
+					stats.wallNanos / 1_000_000, parsedBytes.get(), parsedBytes.get() / (1024.0 * 1024.0) / seconds,
+					recorder.vulnerabilities / seconds));
+			out.println(String.format("  peak heap %.1f MB (sampled), GC %d ms in %d collections",
+					stats.peakHeapBytes / (1024.0 * 1024.0), stats.gcMillis, stats.gcCount));
+			out.println(String.format("  %d vulnerabilities, %d completed", recorder.vulnerabilities,
+					recorder.completed));
+			recorder.print(out);
+		} finally {
+			ParseMetrics.summaryListener = null;
+			plugin.stop();
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static ParserPlugin<?> loadPlugin() {
+		final Iterator<ParserPlugin> plugins = ServiceLoader.load(ParserPlugin.class).iterator();
+		if (!plugins.hasNext()) {
+			throw new IllegalStateException("No " + ParserPlugin.class.getName() + " service found on the class path");
+		}
+		return plugins.next();
+	}
+
+	/**
+	 * Wall time, peak heap and GC time of one run, measured from construction to {@link #stop()}.
+	 * <BR>The peaks of the single heap pools are reached at different times, so the used heap as a whole is sampled
+	 * instead, every {@value #HEAP_SAMPLE_MILLIS} ms on a daemon thread.
+	 */
+	private static final class RunStats {
+		private static final long HEAP_SAMPLE_MILLIS = 5;
+		private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+		private final long start;
+		private final long gcMillisAtStart;
+		private final long gcCountAtStart;
+		private final AtomicLong sampledPeak = new AtomicLong();
+		private final Thread sampler;
+		private volatile boolean sampling = true;
+		long wallNanos;
+		long peakHeapBytes;
+		long gcMillis;
+		long gcCount;
+
+		RunStats() {
+			sampler = new Thread(() -> {
+				while (sampling) {
+					sampleHeap();
+					try {
+						Thread.sleep(HEAP_SAMPLE_MILLIS);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}, "replay-heap-sampler");
+			sampler.setDaemon(true);
+			gcMillisAtStart = gcMillis();
+			gcCountAtStart = gcCount();
+			start = System.nanoTime();
+			sampler.start();
+		}
+
+		void stop() throws InterruptedException {
+			wallNanos = System.nanoTime() - start;
+			sampling = false;
+			sampler.join();
+			sampleHeap();
+			gcMillis = gcMillis() - gcMillisAtStart;
+			gcCount = gcCount() - gcCountAtStart;
+			peakHeapBytes = sampledPeak.get();
+		}
+
+		private void sampleHeap() {
+			final long used = MEMORY.getHeapMemoryUsage().getUsed();
+			sampledPeak.accumulateAndGet(used, Math::max);
+		}
+
+		private static long gcMillis() {
+			long total = 0;
+			for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+				total += Math.max(0, gc.getCollectionTime());
+			}
+			return total;
+		}
+
+		private static long gcCount() {
+			long total = 0;
+			for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+				total += Math.max(0, gc.getCollectionCount());
+			}
+			return total;
+		}
+	}
+
+	/**
+	 * Recording stand-ins for SSC's builders, implemented as dynamic proxies like the benchmark stubs. Every call is
+	 * counted by method name, custom attribute values by attribute.
+	 */
+	private static final class Recorder {
+		private final Map<String, Long> scanCalls = new TreeMap<>();
+		private final Map<String, Long> vulnerabilityCalls = new TreeMap<>();
+		private final Map<String, Long> customAttributes = new TreeMap<>();
+		long vulnerabilities;
+		long completed;
+
+		private final StaticVulnerabilityBuilder vulnerabilityBuilder = proxy(StaticVulnerabilityBuilder.class,
+				(method, args) -> {
+					count(vulnerabilityCalls, method);
+					if (method.endsWith("CustomAttributeValue") && args != null && args.length > 0) {
+						count(customAttributes, String.valueOf(args[0]));
+					} else if ("completeVulnerability".equals(method)) {
+						completed++;
+					}
+				});
+
+		ScanBuilder scanBuilder() {
+			return proxy(ScanBuilder.class, (method, args) -> count(scanCalls, method));
+		}
+
+		VulnerabilityHandler vulnerabilityHandler() {
+			return (VulnerabilityHandler) Proxy.newProxyInstance(VulnerabilityHandler.class.getClassLoader(),
+					new Class<?>[] { VulnerabilityHandler.class }, (proxy, method, args) -> {
+						if ("startStaticVulnerability".equals(method.getName())) {
+							vulnerabilities++;
+							return vulnerabilityBuilder;
+						}
+						return null;
+					});
+		}
+
+		void print(final PrintStream out) {
+			print(out, "scan builder calls", scanCalls);
+			print(out, "vulnerability builder calls", vulnerabilityCalls);
+			print(out, "custom attributes", customAttributes);
+		}
+
+		private static void print(final PrintStream out, final String title, final Map<String, Long> counts) {
+			out.println("  " + title + ":");
+			for (final Map.Entry<String, Long> count : counts.entrySet()) {
+				out.println(String.format("    %-40s %d", count.getKey(), count.getValue()));
+			}
+		}
+
+		private static void count(final Map<String, Long> counts, final String key) {
+			counts.merge(key, 1L, Long::sum);
+		}
+
+		private interface Call {
+			void record(String method, Object[] args);
+		}
+
+		private static <T> T proxy(final Class<T> type, final Call call) {
+			return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+					(proxy, method, args) -> {
+						call.record(method.getName(), args);
+						return null;
+					}));
+		}
+	}
+
+	/**
+	 * File backed scan data: a single report file is the only scan entry, a scan ZIP contributes all its files.
+	 */
+	private static final class FileScanData implements AutoCloseable {
+		private final Path file;
+		private final ZipFile zip;
+		private final List<String> entries = new ArrayList<>();
+		private final ScanData proxy;
+
+		FileScanData(final Path file, final String sessionId) throws IOException {
+			this.file = file;
+			this.zip = file.getFileName().toString().toLowerCase().endsWith(".zip") ? new ZipFile(file.toFile()) : null;
+			if (zip != null) {
+				final Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+				while (zipEntries.hasMoreElements()) {
+					final ZipEntry zipEntry = zipEntries.nextElement();
+					if (!zipEntry.isDirectory()) {
+						entries.add(zipEntry.getName());
+					}
+				}
+			} else {
+				entries.add(file.getFileName().toString());
+			}
+			this.proxy = (ScanData) Proxy.newProxyInstance(ScanData.class.getClassLoader(),
+					new Class<?>[] { ScanData.class }, (p, method, args) -> {
+						switch (method.getName()) {
+						case "getSessionId":
+							return sessionId;
+						case "getScanEntries":
+							return scanEntries();
+						case "getInputStream":
+							return args[0] instanceof ScanEntry ? open(((ScanEntry) args[0]).getEntryName())
+									: open(match(args[0]));
+						case "toString":
+							return "ScanData[" + file + "]";
+						default:
+							throw new UnsupportedOperationException(method.getName());
+						}
+					});
+		}
+
+		private List<ScanEntry> scanEntries() {
+			final List<ScanEntry> scanEntries = new ArrayList<>(entries.size());
+			for (final String name : entries) {
+				scanEntries.add((ScanEntry) Proxy.newProxyInstance(ScanEntry.class.getClassLoader(),
+						new Class<?>[] { ScanEntry.class },
+						(p, method, args) -> {
+							switch (method.getName()) {
+							case "getEntryName":
+								return name;
+							case "toString":
+								return name;
+							default:
+								return null;
+							}
+						}));
+			}
+			return Collections.unmodifiableList(scanEntries);
+		}
+
+		@SuppressWarnings("unchecked")
+		private String match(final Object matcher) throws FileNotFoundException {
+			for (final String name : entries) {
+				if (((Predicate<String>) matcher).test(name)) {
+					return name;
+				}
+			}
+			throw new FileNotFoundException("No scan entry matches in " + file);
+		}
+
+		private InputStream open(final String name) throws IOException {
+			if (zip == null) {
+				return new BufferedInputStream(Files.newInputStream(file));
+			}
+			final ZipEntry entry = zip.getEntry(name);
+			if (entry == null) {
+				throw new FileNotFoundException(name + " not found in " + file);
+			}
+			return new BufferedInputStream(zip.getInputStream(entry));
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (zip != null) {
+				zip.close();
+			}
+		}
+	}
+}
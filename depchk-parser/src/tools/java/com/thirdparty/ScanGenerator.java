@@ -0,0 +1,312 @@
+package com.thirdparty;
+
+/**
+ * (c) Copyright [2018] Micro Focus or one of its affiliates.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * <P>Generates synthetic Dependency-Check JSON reports packed with <code>scan.info</code> into a scan ZIP that can
+ * be uploaded to SSC, or written as plain JSON for benchmarks.
+ * <BR>Report shape is given by number of dependencies, vulnerabilities per dependency, evidence entries per
+ * evidence type and report schema. Content is drawn from a seeded {@link Random} so the same arguments always
+ * produce the same report.
+ * <P>Usage: <code>ScanGenerator fixed|random &lt;output.zip&gt; [dependencies [vulnerabilitiesPerDependency
+ * [evidenceSize [reportSchema]]]]</code>
+ */
+public class ScanGenerator {
+
+	public static final String REPORT_ENTRY_NAME = "dependency-check-report.json";
+	private static final String SCAN_INFO_ENTRY_NAME = "scan.info";
+	private static final String ENGINE_TYPE = "DEPCHK";
+
+	public static final String SCHEMA_1_0 = "1.0";
+	public static final String SCHEMA_1_1 = "1.1";
+
+	private static final long FIXED_SEED = 0x5eedL;
+
+	private static final String[] SEVERITIES = { "CRITICAL", "HIGH", "MEDIUM", "LOW" };
+	private static final float[] SEVERITY_SCORES = { 9.8f, 7.5f, 5.0f, 2.1f };
+	private static final String[] CIA_IMPACTS = { "NONE", "PARTIAL", "COMPLETE" };
+	private static final String[] CIA_IMPACTS_V3 = { "NONE", "LOW", "HIGH" };
+	private static final String[] ACCESS_VECTORS = { "NETWORK", "ADJACENT_NETWORK", "LOCAL" };
+	private static final String[] ACCESS_COMPLEXITIES = { "LOW", "MEDIUM", "HIGH" };
+	private static final String[] CONFIDENCES = { "LOW", "MEDIUM", "HIGH", "HIGHEST" };
+	private static final String[][] CWES = {
+			{ "CWE-20", "Improper Input Validation" },
+			{ "CWE-22", "Improper Limitation of a Pathname to a Restricted Directory ('Path Traversal')" },
+			{ "CWE-78", "Improper Neutralization of Special Elements used in an OS Command ('OS Command Injection')" },
+			{ "CWE-79", "Improper Neutralization of Input During Web Page Generation ('Cross-site Scripting')" },
+			{ "CWE-89", "Improper Neutralization of Special Elements used in an SQL Command ('SQL Injection')" },
+			{ "CWE-119", "Improper Restriction of Operations within the Bounds of a Memory Buffer" },
+			{ "CWE-200", "Exposure of Sensitive Information to an Unauthorized Actor" },
+			{ "CWE-264", "Permissions, Privileges, and Access Controls" },
+			{ "CWE-287", "Improper Authentication" },
+			{ "CWE-352", "Cross-Site Request Forgery (CSRF)" },
+			{ "CWE-400", "Uncontrolled Resource Consumption" },
+			{ "CWE-502", "Deserialization of Untrusted Data" },
+			{ "CWE-611", "Improper Restriction of XML External Entity Reference" },
+			{ "CWE-770", "Allocation of Resources Without Limits or Throttling" },
+			{ "CWE-918", "Server-Side Request Forgery (SSRF)" },
+			{ "NVD-CWE-Other", "Other" },
+			{ "NVD-CWE-noinfo", "Insufficient Information" } };
+	private static final String[] WORDS = { "remote", "attacker", "crafted", "request", "allows", "denial", "service",
+			"arbitrary", "code", "execution", "via", "vulnerability", "in", "the", "component", "before", "version",
+			"library", "parser", "input", "validation", "memory", "exposure", "could", "lead", "to", "bypass" };
+	private static final int CVE_POOL_SIZE = 5000;
+
+	private final Random random;
+	private final int dependencies;
+	private final int vulnerabilitiesPerDependency;
+	private final int evidenceSize;
+	private final String reportSchema;
+
+	public ScanGenerator(final long seed, final int dependencies, final int vulnerabilitiesPerDependency,
+			final int evidenceSize, final String reportSchema) {
+		if (!SCHEMA_1_0.equals(reportSchema) && !SCHEMA_1_1.equals(reportSchema)) {
+			throw new IllegalArgumentException("Unsupported report schema: " + reportSchema);
+		}
+		this.random = new Random(seed);
+		this.dependencies = dependencies;
+		this.vulnerabilitiesPerDependency = vulnerabilitiesPerDependency;
+		this.evidenceSize = evidenceSize;
+		this.reportSchema = reportSchema;
+	}
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: ScanGenerator fixed|random <output.zip> "
+					+ "[dependencies [vulnerabilitiesPerDependency [evidenceSize [reportSchema]]]]");
+			System.exit(1);
+		}
+		final boolean fixed = "fixed".equals(args[0]);
+		final long seed = fixed ? FIXED_SEED : System.nanoTime();
+		final Random sizes = new Random(seed);
+		final int dependencies = args.length > 2 ? Integer.parseInt(args[2]) : fixed ? 100 : 1 + sizes.nextInt(1000);
+		final int vulnerabilities = args.length > 3 ? Integer.parseInt(args[3]) : fixed ? 5 : sizes.nextInt(20);
+		final int evidenceSize = args.length > 4 ? Integer.parseInt(args[4]) : fixed ? 10 : sizes.nextInt(50);
+		final String reportSchema = args.length > 5 ? args[5] : SCHEMA_1_1;
+
+		final Path output = Paths.get(args[1]);
+		new ScanGenerator(seed, dependencies, vulnerabilities, evidenceSize, reportSchema).writeZip(output);
+		System.out.println(String.format("Scan file %s generated: seed %d, %d dependencies, %d vulnerabilities each, "
+				+ "evidence size %d, report schema %s", output, seed, dependencies, vulnerabilities, evidenceSize,
+				reportSchema));
+	}
+
+	/**
+	 * Write scan ZIP with <code>scan.info</code> and the generated report.
+	 */
+	public void writeZip(final Path output) throws IOException {
+		try (final ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+			zip.putNextEntry(new ZipEntry(SCAN_INFO_ENTRY_NAME));
+			zip.write(("engineType=" + ENGINE_TYPE + "\n").getBytes(StandardCharsets.UTF_8));
+			zip.closeEntry();
+			zip.putNextEntry(new ZipEntry(REPORT_ENTRY_NAME));
+			write(zip);
+			zip.closeEntry();
+		}
+	}
+
+	/**
+	 * Write the generated JSON report. The stream is not closed.
+	 */
+	public void write(final OutputStream out) throws IOException {
+		final JsonFactory jsonFactory = new JsonFactory();
+		jsonFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		try (final JsonGenerator gen = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+			gen.writeStartObject();
+			gen.writeStringField("reportSchema", reportSchema);
+			gen.writeObjectFieldStart("scanInfo");
+			gen.writeStringField("engineVersion", SCHEMA_1_0.equals(reportSchema) ? "3.3.4" : "5.2.4");
+			gen.writeArrayFieldStart("dataSource");
+			gen.writeStartObject();
+			gen.writeStringField("name", "NVD CVE Checked");
+			gen.writeStringField("timestamp", "2019-12-01T10:00:00");
+			gen.writeEndObject();
+			gen.writeEndArray();
+			gen.writeEndObject();
+			gen.writeObjectFieldStart("projectInfo");
+			gen.writeStringField("name", "generated");
+			gen.writeStringField("reportDate", DateTimeFormatter.ISO_OFFSET_DATE_TIME
+					.format(Instant.ofEpochSecond(1575000000L + random.nextInt(1000000)).atOffset(ZoneOffset.UTC)));
+			gen.writeStringField("credits", "This report contains data retrieved from the National Vulnerability Database");
+			gen.writeEndObject();
+			gen.writeArrayFieldStart("dependencies");
+			for (int i = 0; i < dependencies; i++) {
+				writeDependency(gen, i);
+			}
+			gen.writeEndArray();
+			gen.writeEndObject();
+		}
+	}
+
+	private void writeDependency(final JsonGenerator gen, final int index) throws IOException {
+		final String artifact = "lib" + index;
+		final String version = (1 + random.nextInt(5)) + "." + random.nextInt(20) + "." + random.nextInt(10);
+		final String fileName = artifact + "-" + version + ".jar";
+
+		gen.writeStartObject();
+		gen.writeBooleanField("isVirtual", false);
+		gen.writeStringField("fileName", fileName);
+		gen.writeStringField("filePath", "/app/WEB-INF/lib/" + fileName);
+		gen.writeStringField("md5", hex(32));
+		gen.writeStringField("sha1", hex(40));
+		gen.writeStringField("sha256", hex(64));
+		gen.writeStringField("description", sentence(10 + random.nextInt(30)));
+		gen.writeStringField("license", "Apache License, Version 2.0");
+		gen.writeObjectFieldStart("evidenceCollected");
+		writeEvidence(gen, "vendorEvidence", "vendor", artifact);
+		writeEvidence(gen, "productEvidence", "product", artifact);
+		writeEvidence(gen, "versionEvidence", "version", version);
+		gen.writeEndObject();
+		if (SCHEMA_1_1.equals(reportSchema)) {
+			gen.writeArrayFieldStart("packages");
+			gen.writeStartObject();
+			gen.writeStringField("id", "pkg:maven/com.example/" + artifact + "@" + version);
+			gen.writeStringField("confidence", "HIGHEST");
+			gen.writeEndObject();
+			gen.writeEndArray();
+		}
+		if (vulnerabilitiesPerDependency > 0) {
+			gen.writeArrayFieldStart("vulnerabilities");
+			for (int i = 0; i < vulnerabilitiesPerDependency; i++) {
+				writeVulnerability(gen, artifact, version);
+			}
+			gen.writeEndArray();
+		}
+		gen.writeEndObject();
+	}
+
+	private void writeEvidence(final JsonGenerator gen, final String field, final String type, final String value)
+			throws IOException {
+		gen.writeArrayFieldStart(field);
+		for (int i = 0; i < evidenceSize; i++) {
+			gen.writeStartObject();
+			gen.writeStringField("type", type);
+			gen.writeStringField("confidence", pick(CONFIDENCES));
+			gen.writeStringField("source", i % 2 == 0 ? "file" : "pom");
+			gen.writeStringField("name", i == 0 ? "name" : "field" + i);
+			gen.writeStringField("value", i == 0 ? value : sentence(1 + random.nextInt(6)));
+			gen.writeEndObject();
+		}
+		gen.writeEndArray();
+	}
+
+	private void writeVulnerability(final JsonGenerator gen, final String artifact, final String version)
+			throws IOException {
+		final int severity = random.nextInt(SEVERITIES.length);
+		final String[] cwe = CWES[random.nextInt(CWES.length)];
+
+		gen.writeStartObject();
+		if (SCHEMA_1_1.equals(reportSchema)) {
+			gen.writeStringField("source", "NVD");
+		}
+		gen.writeStringField("name", String.format("CVE-%d-%d", 2010 + random.nextInt(10), 1000 + random.nextInt(CVE_POOL_SIZE)));
+		if (SCHEMA_1_0.equals(reportSchema)) {
+			gen.writeNumberField("cvssScore", SEVERITY_SCORES[severity]);
+			gen.writeStringField("cvssAccessVector", pick(ACCESS_VECTORS));
+			gen.writeStringField("cvssAccessComplexity", pick(ACCESS_COMPLEXITIES));
+			gen.writeStringField("cvssAuthenticationr", "NONE");
+			gen.writeStringField("cvssConfidentialImpact", pick(CIA_IMPACTS));
+			gen.writeStringField("cvssIntegrityImpact", pick(CIA_IMPACTS));
+			gen.writeStringField("cvssAvailabilityImpact", pick(CIA_IMPACTS));
+			gen.writeStringField("severity", SEVERITIES[severity]);
+			gen.writeStringField("cwe", cwe[0] + " " + cwe[1]);
+		} else {
+			gen.writeStringField("severity", SEVERITIES[severity]);
+			gen.writeObjectFieldStart("cvssv2");
+			gen.writeNumberField("score", SEVERITY_SCORES[Math.max(1, severity)]);
+			gen.writeStringField("accessVector", pick(ACCESS_VECTORS));
+			gen.writeStringField("accessComplexity", pick(ACCESS_COMPLEXITIES));
+			gen.writeStringField("authenticationr", "NONE");
+			gen.writeStringField("confidentialImpact", pick(CIA_IMPACTS));
+			gen.writeStringField("integrityImpact", pick(CIA_IMPACTS));
+			gen.writeStringField("availabilityImpact", pick(CIA_IMPACTS));
+			gen.writeStringField("severity", SEVERITIES[Math.max(1, severity)]);
+			gen.writeEndObject();
+			if (random.nextInt(4) != 0) {
+				gen.writeObjectFieldStart("cvssv3");
+				gen.writeNumberField("baseScore", SEVERITY_SCORES[severity]);
+				gen.writeStringField("attackVector", ACCESS_VECTORS[random.nextInt(2)]);
+				gen.writeStringField("attackComplexity", random.nextBoolean() ? "LOW" : "HIGH");
+				gen.writeStringField("privilegesRequired", pick(CIA_IMPACTS_V3));
+				gen.writeStringField("userInteraction", random.nextBoolean() ? "NONE" : "REQUIRED");
+				gen.writeStringField("scope", random.nextInt(5) == 0 ? "CHANGED" : "UNCHANGED");
+				gen.writeStringField("confidentialityImpact", pick(CIA_IMPACTS_V3));
+				gen.writeStringField("integrityImpact", pick(CIA_IMPACTS_V3));
+				gen.writeStringField("availabilityImpact", pick(CIA_IMPACTS_V3));
+				gen.writeStringField("baseSeverity", SEVERITIES[severity]);
+				gen.writeEndObject();
+			}
+			gen.writeArrayFieldStart("cwes");
+			gen.writeString(cwe[0]);
+			gen.writeEndArray();
+		}
+		gen.writeStringField("description", sentence(20 + random.nextInt(60)));
+		gen.writeArrayFieldStart("references");
+		for (int i = 0, n = 1 + random.nextInt(4); i < n; i++) {
+			gen.writeStartObject();
+			gen.writeStringField("source", "MISC");
+			gen.writeStringField("url", "https://example.com/advisories/" + hex(8));
+			gen.writeStringField("name", "advisory " + i);
+			gen.writeEndObject();
+		}
+		gen.writeEndArray();
+		gen.writeArrayFieldStart("vulnerableSoftware");
+		gen.writeStartObject();
+		gen.writeStringField("software", "cpe:/a:example:" + artifact + ":" + version);
+		gen.writeEndObject();
+		gen.writeEndArray();
+		gen.writeEndObject();
+	}
+
+	private String pick(final String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	private String hex(final int length) {
+		final char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = Character.forDigit(random.nextInt(16), 16);
+		}
+		return new String(chars);
+	}
+
+	private String sentence(final int words) {
+		final StringBuilder sb = new StringBuilder(words * 8);
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			sb.append(pick(WORDS));
+		}
+		return sb.append('.').toString();
+	}
+}